@@ -0,0 +1,162 @@
+/*
+ * File: HangmanJmhBenchmark.java
+ * ------------------------------
+ * This file holds the JMH versions of the HangmanBenchmark hot paths:
+ * building the lexicon (short and full word list), random getWord
+ * access, a guess and the guessed word on the round state, and
+ * resetting/redrawing the canvas.  Run it with the GC profiler to get
+ * the allocation rate per operation:
+ *
+ *   mvn -Pjmh compile exec:exec@jmh [-Djmh.args="<jmh options>"]
+ *
+ * JMH does not accept benchmark classes in the default package, where
+ * all the game classes are, and a named package can't import from the
+ * default one.  So this class lives in its own package and calls the
+ * game through method handles held in static finals, which the JIT
+ * treats as constants and inlines like direct calls.
+ */
+
+package benchmarks;
+
+import java.awt.Component;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class HangmanJmhBenchmark {
+    private static final String SHORT_PATH = "./ShorterLexicon.txt";
+    private static final String FULL_PATH = "./HangmanLexicon.txt";
+    private static final int CANVAS_SIZE = 800;
+
+    private static final MethodHandle NEW_LEXICON = constructor("HangmanLexicon", String.class);
+    private static final MethodHandle GET_WORD_COUNT = method("HangmanLexicon", "getWordCount", int.class);
+    private static final MethodHandle GET_WORD = method("HangmanLexicon", "getWord", String.class, int.class);
+
+    private static final MethodHandle NEW_ROUND = constructor("HangmanRound");
+    private static final MethodHandle START = method("HangmanRound", "start", void.class, CharSequence.class);
+    private static final MethodHandle GUESS = method("HangmanRound", "guess", int.class, char.class);
+    private static final MethodHandle GET_GUESSED_WORD = method("HangmanRound", "getGuessedWord", String.class);
+
+    private static final MethodHandle NEW_CANVAS = constructor("HangmanCanvas");
+    private static final MethodHandle RESET = method("HangmanCanvas", "reset", void.class);
+    private static final MethodHandle DISPLAY_WORD = method("HangmanCanvas", "displayWord", void.class, String.class);
+
+    @State(Scope.Thread)
+    public static class LexiconState {
+        Object lexicon;
+        int wordCount;
+        Random rgen = new Random(1);
+
+        @Setup
+        public void setUp() throws Throwable {
+            lexicon = (Object) NEW_LEXICON.invokeExact(FULL_PATH);
+            wordCount = (int) GET_WORD_COUNT.invokeExact(lexicon);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class RoundState {
+        static final String WORD = "ZYZZYVAS";
+        static final String GUESSES = "SAZYVQ";
+
+        Object round;
+        int next;
+
+        @Setup
+        public void setUp() throws Throwable {
+            round = (Object) NEW_ROUND.invokeExact();
+            START.invokeExact(round, (CharSequence) WORD);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class CanvasState {
+        Object canvas;
+
+        @Setup
+        public void setUp() throws Throwable {
+            canvas = (Object) NEW_CANVAS.invokeExact();
+            ((Component) canvas).setSize(CANVAS_SIZE, CANVAS_SIZE);
+            RESET.invokeExact(canvas);
+        }
+    }
+
+    @Benchmark
+    public Object lexiconShort() throws Throwable {
+        return (Object) NEW_LEXICON.invokeExact(SHORT_PATH);
+    }
+
+    @Benchmark
+    public Object lexiconFull() throws Throwable {
+        return (Object) NEW_LEXICON.invokeExact(FULL_PATH);
+    }
+
+    @Benchmark
+    public String lexiconGetWord(LexiconState state) throws Throwable {
+        return (String) GET_WORD.invokeExact(state.lexicon, state.rgen.nextInt(state.wordCount));
+    }
+
+    // one guess per operation, restarting the round once all letters are used
+    @Benchmark
+    public int roundGuess(RoundState state) throws Throwable {
+        if (state.next == 0) START.invokeExact(state.round, (CharSequence) RoundState.WORD);
+        int result = (int) GUESS.invokeExact(state.round, RoundState.GUESSES.charAt(state.next));
+        state.next = (state.next + 1) % RoundState.GUESSES.length();
+        return result;
+    }
+
+    @Benchmark
+    public String roundGetGuessedWord(RoundState state) throws Throwable {
+        return (String) GET_GUESSED_WORD.invokeExact(state.round);
+    }
+
+    @Benchmark
+    public void canvasReset(CanvasState state) throws Throwable {
+        RESET.invokeExact(state.canvas);
+    }
+
+    @Benchmark
+    public void canvasDisplayWord(CanvasState state) throws Throwable {
+        DISPLAY_WORD.invokeExact(state.canvas, "-A--A-");
+    }
+
+    // a public constructor of a game class, typed to return Object
+    private static MethodHandle constructor(String className, Class<?>... parameters) {
+        try {
+            Class<?> type = Class.forName(className);
+            MethodHandle handle = MethodHandles.publicLookup().findConstructor(type, MethodType.methodType(void.class, parameters));
+            return handle.asType(handle.type().changeReturnType(Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // a public method of a game class, typed to take the receiver as Object
+    private static MethodHandle method(String className, String name, Class<?> returnType, Class<?>... parameters) {
+        try {
+            Class<?> type = Class.forName(className);
+            MethodHandle handle = MethodHandles.publicLookup().findVirtual(type, name, MethodType.methodType(returnType, parameters));
+            return handle.asType(handle.type().changeParameterType(0, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
@@ -4,17 +4,22 @@ import acm.util.*;
 
 import java.awt.*;
 
-public class Hangman extends ConsoleProgram {
-    private static final int GUESS_COUNT = 8;
-
-    private static RandomGenerator rgen = RandomGenerator.getInstance();
-    private static HangmanLexicon lexicon = new HangmanLexicon();
+public class Hangman extends ConsoleProgram implements HangmanListener {
+    private static HangmanLexiconHolder lexicons = HangmanLexiconHolder.watchDefault();
 
     private HangmanCanvas canvas;
+    private HangmanEngine engine = new HangmanEngine(this);
+    private HangmanRandom random = HangmanRandom.fromProperties();
+    private boolean evil;
+    private HangmanLexicon lexicon;   // the word list the bag (and adversary) were made for
+    private HangmanShuffleBag wordBag;  // words not drawn yet
 
     public void init() {
         canvas = new HangmanCanvas();
         add(canvas);
+        // in evil mode the word is only decided as the player guesses
+        evil = Boolean.getBoolean("hangman.evil");
+        HangmanMetrics.exportFromProperties();
     }
 
     public void run() {
@@ -25,61 +30,58 @@ public class Hangman extends ConsoleProgram {
 
     // runs one round of the game
     private void beginRound() {
-        int attemptCount = GUESS_COUNT;
-        int idx = rgen.nextInt(0, lexicon.getWordCount() - 1);
-        String currentWord = lexicon.getWord(idx);
-        String guessedWord = getGuessedWord(currentWord.length());
+        // the word list may have been reloaded since the last round
+        HangmanLexicon latest = lexicons.get();
+        if (latest != lexicon) {
+            lexicon = latest;
+            wordBag = new HangmanShuffleBag(0, lexicon.getWordCount());
+            if (evil) engine.setAdversary(new HangmanEvilAdversary(lexicon.wordStore, lexicon.getIndex()));
+        }
 
-        // display the word initially
-        canvas.displayWord(guessedWord);
+        // no word comes up twice before all of them have
+        int idx = wordBag.next(random);
+        engine.startRound(lexicon.getWord(idx));
 
-        runAttempts(attemptCount, guessedWord, currentWord);
+        runAttempts();
     }
 
     // continuously accepts letter input from user and checks if it's correct (and also valid)
-    private void runAttempts(int attemptCount, String guessedWord, String currentWord) {
-        while (attemptCount > 0 && !guessedWord.equals(currentWord)) {
-            println("The word now looks like this: " + guessedWord);
-            println("You have " + attemptCount + " guesses left.");
+    private void runAttempts() {
+        while (engine.isRoundRunning()) {
+            println("The word now looks like this: " + engine.getGuessedWord());
+            println("You have " + engine.getAttemptCount() + " guesses left.");
             char letter = Character.toUpperCase(readChar("Your guess: "));
 
-            if (isCorrectGuess(letter, currentWord)) {
-                if (guessedWord.contains("" + letter)) continue; // in case the letter is repeated
-                guessedWord = updateGuessWord(guessedWord, currentWord, letter);
-                canvas.displayWord(guessedWord);
-                println("That guess is correct.");
-            } else {
-                attemptCount--;
-                handleIncorrectGuess(letter, attemptCount);
-            }
+            engine.guess(letter);
         }
-        checkGameState(guessedWord, currentWord);
+    }
+
+    // display the word initially
+    public void roundStarted(HangmanEngine engine) {
+        canvas.displayWord(engine.getGuessedWord());
+    }
+
+    public void correctGuess(HangmanEngine engine, char letter) {
+        canvas.displayWord(engine.getGuessedWord());
+        println("That guess is correct.");
     }
 
     // in case the guessed letter was not in the word
-    private void handleIncorrectGuess(char letter, int attemptCount) {
-        int wrongGuessNum = GUESS_COUNT - attemptCount;
+    public void incorrectGuess(HangmanEngine engine, char letter, int wrongGuessNum) {
         canvas.noteIncorrectGuess(letter, wrongGuessNum);
 
         println("There are no " + letter + "'s in the word.");
     }
 
-    // replaces "-" character with the correctly guessed letter
-    private String updateGuessWord(String guessedWord, String currentWord, char letter) {
-        StringBuilder updatedWord = new StringBuilder(guessedWord);
-
-        int charPos = currentWord.indexOf(letter);
-        while (charPos != -1) {
-            updatedWord.setCharAt(charPos, letter);
-            charPos = currentWord.indexOf(letter, charPos + 1);
-        }
-
-        return updatedWord.toString();
+    // handle the game's ending, display results
+    public void roundWon(HangmanEngine engine) {
+        println("You guessed the word: " + engine.getCurrentWord());
+        println("You win.");
     }
 
-    // checks if the current word contains the guessed character
-    private boolean isCorrectGuess(char letter, String word) {
-        return word.contains("" + letter) ? true : false;
+    public void roundLost(HangmanEngine engine, boolean timedOut) {
+        println("The word was: " + engine.getCurrentWord());
+        println("You lose.");
     }
 
     // general method for accepting character input
@@ -100,27 +102,6 @@ public class Hangman extends ConsoleProgram {
         return ch.charAt(0);
     }
 
-    // handle the game's ending, display results
-    private void checkGameState(String guessedWord, String currentWord) {
-        if (guessedWord.equals(currentWord)) {
-            println("You guessed the word: " + currentWord);
-            println("You win.");
-        } else {
-            println("The word was: " + currentWord);
-            println("You lose.");
-        }
-    }
-
-    // fill the string with "-" characters
-    private String getGuessedWord(int length) {
-        String guessedWord = "";
-        for (int i = 0; i < length; i++) {
-            guessedWord += "-";
-        }
-
-        return guessedWord;
-    }
-
     // checks if the character is a letter
     private boolean isInvalidCharInput(char ch) {
         if ((ch >= 'A' && ch <= 'Z') || (ch >= 'a' && ch <= 'z')) {
@@ -0,0 +1,22 @@
+/*
+ * File: HangmanAdversary.java
+ * ---------------------------
+ * This file declares an opponent that doesn't commit to a secret word.
+ * Before each new guess the engine asks it for a word to continue with,
+ * which must agree with everything revealed so far; HangmanEngine then
+ * evaluates the guess against that word as usual.
+ */
+
+public interface HangmanAdversary {
+
+/** Called when a round starts, with the round holding the word it was started with. */
+    void roundStarted(HangmanRound round);
+
+/**
+ * Returns the word the round continues with, given the uppercase letter
+ * about to be guessed (one not guessed yet).  The word has the round's
+ * length and the same letters at every revealed position, and contains
+ * no letter that was guessed wrong.
+ */
+    String chooseWord(HangmanRound round, char letter);
+}
@@ -0,0 +1,233 @@
+/*
+ * File: HangmanAudio.java
+ * -----------------------
+ * This file plays the game's sound effects.  Every sound is decoded
+ * once, when it is loaded, into 16-bit stereo samples at the mixing
+ * rate, and all playing sounds are mixed on one thread into a single
+ * output line.
+ *
+ * play() never blocks: it only offers the sound to a small bounded
+ * queue, and a sound that doesn't fit (the queue is full) is dropped.
+ * This keeps the callers, like the round clock playing the tick, free
+ * of audio latency.
+ *
+ * When there is no audio device (headless machines, no sound card) the
+ * engine is silent: loading returns empty sounds and play() does
+ * nothing.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+public class HangmanAudio {
+    private static final float MIX_RATE = 44100;
+    private static final int CHANNELS = 2;
+    private static final int BLOCK_FRAMES = 256;      // about 6 ms per mixed block
+    private static final int LINE_BLOCKS = 4;         // output buffer, in blocks
+    private static final int MAX_VOICES = 8;          // sounds playing at once
+    private static final int QUEUE_SIZE = 16;
+
+    private static final AudioFormat MIX_FORMAT = new AudioFormat(MIX_RATE, 16, CHANNELS, true, false);
+    private static final Sound SILENCE = new Sound(new short[0]);
+
+    private final SourceDataLine line;
+    private final BlockingQueue<Sound> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+
+    // owned by the mixer thread
+    private final Sound[] voices = new Sound[MAX_VOICES];
+    private final int[] voicePositions = new int[MAX_VOICES];
+    private final int[] mix = new int[BLOCK_FRAMES * CHANNELS];
+    private final byte[] out = new byte[BLOCK_FRAMES * CHANNELS * 2];
+
+    private HangmanAudio(SourceDataLine line) {
+        this.line = line;
+    }
+
+/** Opens the default audio output, or returns a silent engine if there is none. */
+    public static HangmanAudio open() {
+        SourceDataLine line;
+        try {
+            line = AudioSystem.getSourceDataLine(MIX_FORMAT);
+            line.open(MIX_FORMAT, BLOCK_FRAMES * LINE_BLOCKS * MIX_FORMAT.getFrameSize());
+            line.start();
+        } catch (LineUnavailableException | IllegalArgumentException | SecurityException e) {
+            return new HangmanAudio(null);
+        }
+
+        HangmanAudio audio = new HangmanAudio(line);
+        Thread mixer = new Thread(audio::mixLoop, "hangman-audio");
+        mixer.setDaemon(true);
+        mixer.setPriority(Thread.MAX_PRIORITY);
+        mixer.start();
+
+        return audio;
+    }
+
+/** Returns true if sounds are actually played. */
+    public boolean isEnabled() {
+        return line != null;
+    }
+
+/**
+ * Loads a sound file and decodes it for playing.  A file that cannot
+ * be read gives a silent sound (with a warning), so a missing asset
+ * doesn't stop the game.
+ */
+    public Sound load(String path) {
+        if (line == null) return SILENCE;
+
+        try {
+            return new Sound(decode(path));
+        } catch (IOException | UnsupportedAudioFileException | IllegalArgumentException e) {
+            System.err.println("cannot load sound " + path + ": " + e.getMessage());
+            return SILENCE;
+        }
+    }
+
+/** Starts playing a sound, without waiting.  Dropped if too many sounds are already waiting. */
+    public void play(Sound sound) {
+        if (line != null && sound.samples.length > 0) {
+            queue.offer(sound);
+        }
+    }
+
+    // reads a file as 16-bit samples and converts them to the mixing format
+    private static short[] decode(String path) throws IOException, UnsupportedAudioFileException {
+        try (AudioInputStream file = AudioSystem.getAudioInputStream(new File(path))) {
+            AudioFormat format = file.getFormat();
+            int channels = format.getChannels();
+            AudioFormat pcm = new AudioFormat(format.getSampleRate(), 16, channels, true, false);
+
+            byte[] bytes;
+            try (AudioInputStream in = AudioSystem.getAudioInputStream(pcm, file)) {
+                bytes = in.readAllBytes();
+            }
+
+            int frames = bytes.length / (2 * channels);
+            short[] source = new short[frames * channels];
+            for (int i = 0; i < source.length; i++) {
+                source[i] = (short) ((bytes[2 * i] & 0xFF) | (bytes[2 * i + 1] << 8));
+            }
+
+            return resample(source, channels, frames, pcm.getSampleRate());
+        }
+    }
+
+    // linear interpolation to MIX_RATE, mono copied to both channels
+    private static short[] resample(short[] source, int channels, int frames, float rate) {
+        double step = rate / MIX_RATE;
+        int outFrames = (int) (frames / step);
+        short[] samples = new short[outFrames * CHANNELS];
+
+        for (int i = 0; i < outFrames; i++) {
+            double pos = i * step;
+            int frame = (int) pos;
+            int next = Math.min(frame + 1, frames - 1);
+            double frac = pos - frame;
+
+            for (int c = 0; c < CHANNELS; c++) {
+                int sc = Math.min(c, channels - 1);
+                double a = source[frame * channels + sc];
+                double b = source[next * channels + sc];
+                samples[i * CHANNELS + c] = (short) Math.round(a + (b - a) * frac);
+            }
+        }
+
+        return samples;
+    }
+
+    /*
+     *  ~~ MIXER THREAD ~~
+     *
+     *  Waits for a sound while nothing plays, otherwise mixes one block
+     *  at a time.  Writing a block blocks only this thread, once the
+     *  line's small buffer is full.
+     */
+    private void mixLoop() {
+        try {
+            while (true) {
+                if (!hasVoices()) {
+                    startVoice(queue.take());
+                }
+
+                Sound sound;
+                while ((sound = queue.poll()) != null) {
+                    startVoice(sound);
+                }
+
+                mixBlock();
+                line.write(out, 0, out.length);
+            }
+        } catch (InterruptedException e) {
+            line.close();
+        }
+    }
+
+    private boolean hasVoices() {
+        for (Sound voice : voices) {
+            if (voice != null) return true;
+        }
+
+        return false;
+    }
+
+    // takes a free voice; with all of them busy the sound is skipped
+    private void startVoice(Sound sound) {
+        for (int v = 0; v < MAX_VOICES; v++) {
+            if (voices[v] == null) {
+                voices[v] = sound;
+                voicePositions[v] = 0;
+                return;
+            }
+        }
+    }
+
+    private void mixBlock() {
+        Arrays.fill(mix, 0);
+
+        for (int v = 0; v < MAX_VOICES; v++) {
+            Sound voice = voices[v];
+            if (voice == null) continue;
+
+            int pos = voicePositions[v];
+            int count = Math.min(mix.length, voice.samples.length - pos);
+            for (int i = 0; i < count; i++) {
+                mix[i] += voice.samples[pos + i];
+            }
+
+            voicePositions[v] = pos + count;
+            if (voicePositions[v] >= voice.samples.length) {
+                voices[v] = null;
+            }
+        }
+
+        for (int i = 0; i < mix.length; i++) {
+            int sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mix[i]));
+            out[2 * i] = (byte) sample;
+            out[2 * i + 1] = (byte) (sample >> 8);
+        }
+    }
+
+/** A decoded sound, ready to be mixed. */
+    public static class Sound {
+        private final short[] samples;  // interleaved stereo at the mixing rate
+
+        private Sound(short[] samples) {
+            this.samples = samples;
+        }
+
+/** Returns the length of the sound in milliseconds (0 when silent). */
+        public int getMillis() {
+            return (int) (1000L * samples.length / CHANNELS / (long) MIX_RATE);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * File: HangmanBenchmark.java
+ * ---------------------------
+ * This file measures the hot paths of the game: building the lexicon
+ * (short and full word list), random getWord access (also on the
+ * HangmanTrie automaton, with a pattern query), evaluating a guess on
+ * the round state and through the engine (with its metrics), and
+ * resetting/redrawing the canvas.  For every benchmark it reports
+ * the time and the bytes allocated per operation, so any performance
+ * change can be compared before/after.
+ *
+ * Runs headless; pass benchmark names to run only some of them.
+ *
+ * Usage: java -cp acm.jar:out/production/assignment4 HangmanBenchmark [name ...]
+ */
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class HangmanBenchmark {
+    private static final long WARMUP_NANOS = 1000000000L;
+    private static final long MEASURE_NANOS = 2000000000L;
+    private static final long BATCH_NANOS = 10000000L;  // batches grow until they take this long
+    private static final int CANVAS_SIZE = 800;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static volatile Object sink;
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+
+        List<Benchmark> benchmarks = new ArrayList<>();
+        addLexiconBenchmarks(benchmarks);
+        addRoundBenchmarks(benchmarks);
+        addCanvasBenchmarks(benchmarks);
+
+        System.out.printf("%-28s %14s %14s%n", "benchmark", "ns/op", "bytes/op");
+        for (Benchmark benchmark : benchmarks) {
+            if (args.length == 0 || isSelected(benchmark.name, args)) {
+                run(benchmark);
+            }
+        }
+    }
+
+    private static void addLexiconBenchmarks(List<Benchmark> benchmarks) {
+        benchmarks.add(new Benchmark("lexicon.short", () -> sink = new HangmanLexicon("./ShorterLexicon.txt")));
+        benchmarks.add(new Benchmark("lexicon.full", () -> sink = new HangmanLexicon("./HangmanLexicon.txt")));
+
+        HangmanLexicon lexicon = new HangmanLexicon("./HangmanLexicon.txt");
+        Random rgen = new Random(1);
+        benchmarks.add(new Benchmark("lexicon.getWord", () -> sink = lexicon.getWord(rgen.nextInt(lexicon.getWordCount()))));
+
+        HangmanTrie.WordList trie = new HangmanTrie.Builder().add("full", lexicon.wordStore).build().getList("full");
+        int excluded = HangmanWordIndex.letterMask("ESTR");
+        benchmarks.add(new Benchmark("trie.getWord", () -> sink = trie.getWord(rgen.nextInt(trie.getWordCount()))));
+        benchmarks.add(new Benchmark("trie.countMatches", () -> sink = trie.countMatches("--A--N-", excluded)));
+    }
+
+    private static void addRoundBenchmarks(List<Benchmark> benchmarks) {
+        HangmanRound round = new HangmanRound();
+        int[] next = { 0 };
+        String word = "ZYZZYVAS";
+        String guesses = "SAZYVQ";
+
+        // one guess per operation, restarting the round once all letters are used
+        benchmarks.add(new Benchmark("round.guess", () -> {
+            if (next[0] == 0) round.start(word);
+            round.guess(guesses.charAt(next[0]));
+            next[0] = (next[0] + 1) % guesses.length();
+        }));
+        benchmarks.add(new Benchmark("round.getGuessedWord", () -> sink = round.getGuessedWord()));
+        // the same guesses through the engine, which also records the game metrics
+        HangmanEngine engine = new HangmanEngine(new HangmanListener() {});
+        int[] nextEngine = { 0 };
+        benchmarks.add(new Benchmark("engine.guess", () -> {
+            if (!engine.isRoundRunning()) {
+                engine.startRound(word);
+                nextEngine[0] = 0;
+            }
+            engine.guess(guesses.charAt(nextEngine[0]++ % guesses.length()));
+        }));
+        // and with metrics off, as the simulator runs it
+        HangmanEngine quietEngine = new HangmanEngine(new HangmanListener() {});
+        quietEngine.setRecordingMetrics(false);
+        int[] nextQuiet = { 0 };
+        benchmarks.add(new Benchmark("engine.guess.noMetrics", () -> {
+            if (!quietEngine.isRoundRunning()) {
+                quietEngine.startRound(word);
+                nextQuiet[0] = 0;
+            }
+            quietEngine.guess(guesses.charAt(nextQuiet[0]++ % guesses.length()));
+        }));
+        benchmarks.add(new Benchmark("round.isSolved", () -> sink = round.isSolved() ? Boolean.TRUE : Boolean.FALSE));
+    }
+
+    private static void addCanvasBenchmarks(List<Benchmark> benchmarks) {
+        HangmanCanvas canvas = new HangmanCanvas();
+        canvas.setSize(CANVAS_SIZE, CANVAS_SIZE);
+        canvas.reset();
+
+        benchmarks.add(new Benchmark("canvas.reset", canvas::reset));
+        benchmarks.add(new Benchmark("canvas.displayWord", () -> canvas.displayWord("-A--A-")));
+    }
+
+    private static boolean isSelected(String name, String[] args) {
+        for (String arg : args) {
+            if (name.startsWith(arg)) return true;
+        }
+
+        return false;
+    }
+
+    // runs the benchmark for a warmup and a measured period, in batches
+    private static void run(Benchmark benchmark) {
+        long batch = 1;
+        long warmupEnd = System.nanoTime() + WARMUP_NANOS;
+        while (System.nanoTime() < warmupEnd) {
+            long batchStart = System.nanoTime();
+            runBatch(benchmark, batch);
+            if (System.nanoTime() - batchStart < BATCH_NANOS) batch *= 2;
+        }
+
+        long thread = Thread.currentThread().getId();
+        long ops = 0;
+        long bytesBefore = THREADS.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            runBatch(benchmark, batch);
+            ops += batch;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MEASURE_NANOS);
+        long bytes = THREADS.getThreadAllocatedBytes(thread) - bytesBefore;
+
+        System.out.printf("%-28s %14.1f %14.1f%n", benchmark.name, (double) elapsed / ops, (double) bytes / ops);
+    }
+
+    private static void runBatch(Benchmark benchmark, long batch) {
+        for (long i = 0; i < batch; i++) {
+            benchmark.op.run();
+        }
+    }
+
+    private static class Benchmark {
+        final String name;
+        final Runnable op;
+
+        Benchmark(String name, Runnable op) {
+            this.name = name;
+            this.op = op;
+        }
+    }
+}
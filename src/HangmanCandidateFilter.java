@@ -0,0 +1,158 @@
+/*
+ * File: HangmanCandidateFilter.java
+ * ---------------------------------
+ * This file keeps the set of lexicon words that still fit a round:
+ * the revealed pattern (like -A--A-) and none of the wrong letters.
+ * The set is a bitset over the words of the round's length and every
+ * guess only intersects it with the precomputed bitsets of a
+ * HangmanCandidateIndex, so nothing is rescanned letter by letter.
+ *
+ * A filter belongs to one round at a time; the index can be shared.
+ */
+
+import java.util.Arrays;
+
+public class HangmanCandidateFilter {
+    private static final int ALPHABET_SIZE = HangmanWordIndex.ALPHABET_SIZE;
+
+    private final HangmanCandidateIndex index;
+    private final long[] alive;
+    private final int[] letterCounts = new int[ALPHABET_SIZE];
+    private int length;
+    private int words;  // number of words in the current bucket
+
+    public HangmanCandidateFilter(HangmanCandidateIndex index) {
+        this.index = index;
+
+        int maxBucket = 0;
+        for (int length = 0; length <= index.getMaxLength(); length++) {
+            maxBucket = Math.max(maxBucket, index.getBucketSize(length));
+        }
+        alive = new long[HangmanCandidateIndex.bitsetLength(maxBucket)];
+    }
+
+/** Starts over with every word of the given length as a candidate. */
+    public void reset(int length) {
+        this.length = length;
+        words = index.getBucketSize(length);
+
+        int full = words / Long.SIZE;
+        Arrays.fill(alive, 0);
+        Arrays.fill(alive, 0, full, -1L);
+        if (words % Long.SIZE != 0) {
+            alive[full] = (1L << (words % Long.SIZE)) - 1;
+        }
+    }
+
+/** Starts over for a round, applying the letters it has guessed so far. */
+    public void reset(HangmanRound round) {
+        reset(round.getLength());
+
+        int guessed = round.getGuessedMask();
+        while (guessed != 0) {
+            char letter = (char) ('A' + Integer.numberOfTrailingZeros(guessed));
+            applyGuess(letter, round.getPositions(letter));
+            guessed &= guessed - 1;
+        }
+    }
+
+/**
+ * Narrows the candidates after a guess: positions is the mask of the
+ * places the letter was revealed at, 0 for a wrong guess.
+ */
+    public void applyGuess(char letter, long positions) {
+        int letterNum = Character.toUpperCase(letter) - 'A';
+        if (letterNum < 0 || letterNum >= ALPHABET_SIZE || words == 0) return;
+
+        int used = HangmanCandidateIndex.bitsetLength(words);
+        if (positions == 0) {
+            andNot(index.getLetterPresence(length, letterNum), used);
+            return;
+        }
+
+        // the letter must be at exactly the revealed positions
+        for (int pos = 0; pos < length; pos++) {
+            long[] atPos = index.getPositionLetter(length, pos, letterNum);
+            if ((positions & (1L << pos)) != 0) {
+                and(atPos, used);
+            } else {
+                andNot(atPos, used);
+            }
+        }
+    }
+
+/** Returns how many words are still candidates. */
+    public int countCandidates() {
+        int count = 0;
+        for (int i = HangmanCandidateIndex.bitsetLength(words) - 1; i >= 0; i--) {
+            count += Long.bitCount(alive[i]);
+        }
+
+        return count;
+    }
+
+/** Returns how many candidates contain the letter. */
+    public int countLetter(char letter) {
+        int letterNum = Character.toUpperCase(letter) - 'A';
+        if (letterNum < 0 || letterNum >= ALPHABET_SIZE || words == 0) return 0;
+
+        long[] presence = index.getLetterPresence(length, letterNum);
+        int count = 0;
+        for (int i = HangmanCandidateIndex.bitsetLength(words) - 1; i >= 0; i--) {
+            count += Long.bitCount(alive[i] & presence[i]);
+        }
+
+        return count;
+    }
+
+/**
+ * Returns the letter outside the excluded mask that the most
+ * candidates contain, or 0 if no candidate contains any such letter.
+ */
+    public char bestLetter(int excluded) {
+        if (words == 0) return 0;
+
+        Arrays.fill(letterCounts, 0);
+        int used = HangmanCandidateIndex.bitsetLength(words);
+        for (int letter = 0; letter < ALPHABET_SIZE; letter++) {
+            if ((excluded & (1 << letter)) != 0) continue;
+
+            long[] presence = index.getLetterPresence(length, letter);
+            for (int i = 0; i < used; i++) {
+                letterCounts[letter] += Long.bitCount(alive[i] & presence[i]);
+            }
+        }
+
+        int best = -1;
+        for (int letter = 0; letter < ALPHABET_SIZE; letter++) {
+            if (letterCounts[letter] > 0 && (best < 0 || letterCounts[letter] > letterCounts[best])) {
+                best = letter;
+            }
+        }
+
+        return best < 0 ? 0 : (char) ('A' + best);
+    }
+
+/** Returns the lexicon index of the n-th remaining candidate, or -1. */
+    public int getCandidate(int n) {
+        for (int i = 0; i < HangmanCandidateIndex.bitsetLength(words); i++) {
+            int bits = Long.bitCount(alive[i]);
+            if (n < bits) {
+                long word = alive[i];
+                for (; n > 0; n--) word &= word - 1;
+                return index.getWord(length, i * Long.SIZE + Long.numberOfTrailingZeros(word));
+            }
+            n -= bits;
+        }
+
+        return -1;
+    }
+
+    private void and(long[] bits, int used) {
+        for (int i = 0; i < used; i++) alive[i] &= bits[i];
+    }
+
+    private void andNot(long[] bits, int used) {
+        for (int i = 0; i < used; i++) alive[i] &= ~bits[i];
+    }
+}
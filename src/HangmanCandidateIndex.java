@@ -0,0 +1,96 @@
+/*
+ * File: HangmanCandidateIndex.java
+ * --------------------------------
+ * This file builds the bitsets HangmanCandidateFilter narrows its
+ * candidate words with.  Words are grouped in buckets by length, and
+ * inside a bucket every word has a bit number.  For each length there
+ * is a bitset per (position, letter), with the bits of the words that
+ * have that letter at that position, and a bitset per letter with the
+ * words that contain it anywhere.
+ *
+ * The index is immutable once built and can be shared by any number of
+ * filters and threads.
+ */
+
+public class HangmanCandidateIndex {
+    private static final int ALPHABET_SIZE = HangmanWordIndex.ALPHABET_SIZE;
+
+    private final HangmanWordStore store;
+    private final int[][] buckets;             // word indices per length
+    private final long[][][] positionLetters;  // [length][pos * 26 + letter] -> bitset
+    private final long[][][] letterPresence;   // [length][letter] -> bitset
+
+    public HangmanCandidateIndex(HangmanWordStore store, HangmanWordIndex index) {
+        this.store = store;
+        int maxLength = store.getMaxWordLength();
+
+        buckets = new int[maxLength + 1][];
+        positionLetters = new long[maxLength + 1][][];
+        letterPresence = new long[maxLength + 1][][];
+
+        for (int length = 0; length <= maxLength; length++) {
+            int[] bucket = new int[store.getLengthCount(length)];
+            index.copyWordsOfLength(length, bucket);
+            buckets[length] = bucket;
+
+            buildBitsets(length, bucket);
+        }
+    }
+
+    private void buildBitsets(int length, int[] bucket) {
+        int bitsetLength = bitsetLength(bucket.length);
+        long[][] positions = new long[length * ALPHABET_SIZE][bitsetLength];
+        long[][] presence = new long[ALPHABET_SIZE][bitsetLength];
+
+        for (int bit = 0; bit < bucket.length; bit++) {
+            int word = bucket[bit];
+            long wordBit = 1L << bit;
+
+            for (int pos = 0; pos < length; pos++) {
+                int letter = store.getLetter(word, pos) - 'A';
+                if (letter < 0 || letter >= ALPHABET_SIZE) continue;
+
+                positions[pos * ALPHABET_SIZE + letter][bit >>> 6] |= wordBit;
+                presence[letter][bit >>> 6] |= wordBit;
+            }
+        }
+
+        positionLetters[length] = positions;
+        letterPresence[length] = presence;
+    }
+
+/** Returns the number of longs in a bitset covering the given number of words. */
+    public static int bitsetLength(int words) {
+        return (words + Long.SIZE - 1) / Long.SIZE;
+    }
+
+/** Returns the word store the index was built over. */
+    public HangmanWordStore getStore() {
+        return store;
+    }
+
+/** Returns the number of words of the given length. */
+    public int getBucketSize(int length) {
+        return length < buckets.length ? buckets[length].length : 0;
+    }
+
+/** Returns the longest word length in the index. */
+    public int getMaxLength() {
+        return buckets.length - 1;
+    }
+
+/** Returns the word index behind a bit of the bucket for the given length. */
+    public int getWord(int length, int bit) {
+        return buckets[length][bit];
+    }
+
+/** Returns the bitset of words of that length with the letter (0-25) at pos. */
+    long[] getPositionLetter(int length, int pos, int letter) {
+        return positionLetters[length][pos * ALPHABET_SIZE + letter];
+    }
+
+/** Returns the bitset of words of that length that contain the letter (0-25). */
+    long[] getLetterPresence(int length, int letter) {
+        return letterPresence[length][letter];
+    }
+}
@@ -8,14 +8,27 @@ import acm.graphics.*;
 import java.awt.*;
 
 public class HangmanCanvas extends GCanvas {
+    private static final HangmanMetrics.Histogram RENDER_TIME =
+            HangmanMetrics.histogram("hangman_render_seconds", "canvas=\"basic\"", "Time to paint a canvas",
+                    HangmanMetrics.NANOS, HangmanMetrics.exponentialBounds(10000, 2, 16));
+
     private GLabel wordLabel;
     private GLabel wrongGuessLabel;
+    private GImage figure;
+    private HangmanSpriteCache.Frames figureFrames;
+
+    public void paint(Graphics g) {
+        long start = System.nanoTime();
+        super.paint(g);
+        RENDER_TIME.record(System.nanoTime() - start);
+    }
 
 /** Resets the display so that only the scaffold appears */
 	public void reset() {
         removeAll();
         removeLabels();
         drawStructure();
+        drawFigure();
 	}
 
     private void removeLabels() {
@@ -33,6 +46,13 @@ public class HangmanCanvas extends GCanvas {
         drawRope(startingY);
     }
 
+    // the figure is one image, swapped for the next pre-rendered frame on every wrong guess
+    private void drawFigure() {
+        figureFrames = HangmanSpriteCache.getFrames(getWidth(), getHeight());
+        figure = new GImage(figureFrames.get(0));
+        add(figure, figureFrames.getX(), figureFrames.getY());
+    }
+
 /**
  * Updates the word on the screen to correspond to the current
  * state of the game.  The argument string shows what letters have
@@ -70,45 +90,9 @@ public class HangmanCanvas extends GCanvas {
             wrongGuessLabel.setLabel(prevText + letter);
         }
 
-        drawBodyPart(wrongGuessNum);
+        figure.setImage(figureFrames.get(wrongGuessNum));
 	}
 
-    // draw a body part according to the number of wrong guesses
-    private void drawBodyPart(int num) {
-        int centerX = getWidth() / 2;
-        int centerY = getHeight() / 2;
-
-        int bodyStartY = centerY - ARM_OFFSET_FROM_HEAD;
-        int bodyEndY = bodyStartY + BODY_LENGTH;
-
-        switch (num) {
-        case 1:
-            drawHead(centerX, centerY);
-            break;
-        case 2:
-            drawBody(centerX, centerY, bodyStartY, bodyEndY);
-            break;
-        case 3:
-            drawLeftHand(centerX, centerY);
-            break;
-        case 4:
-            drawRightHand(centerX, centerY);
-            break;
-        case 5:
-            drawLeftLeg(centerX, bodyEndY);
-            break;
-        case 6:
-            drawRightLeg(centerX, bodyEndY);
-            break;
-        case 7:
-            drawLeftFoot(centerX, bodyEndY);
-            break;
-        case 8:
-            drawRightFoot(centerX, bodyEndY);
-            break;
-        }
-    }
-
     /*
      *  ~~ DRAW METHODS FOR THE STRUCTURES ~~
      */
@@ -128,78 +112,6 @@ public class HangmanCanvas extends GCanvas {
         add(rope);
     }
 
-    /*
-     *  ~~ DRAW METHODS FOR THE BODY PARTS ~~
-     */
-    private void drawHead(int centerX, int centerY) {
-        int headDiameter = 2 * HEAD_RADIUS;
-
-        int headX = centerX - HEAD_RADIUS;
-        int headY = centerY - ARM_OFFSET_FROM_HEAD - headDiameter;
-
-        GOval head = new GOval(headX, headY, headDiameter, headDiameter);
-        add(head);
-    }
-
-    private void drawBody(int centerX, int centerY, int bodyStartY, int bodyEndY) {
-        GLine body = new GLine(centerX, bodyStartY, centerX, bodyEndY);
-        add(body);
-    }
-
-    private void drawLeftHand(int centerX, int centerY) {
-        int upperArmStartX = centerX - UPPER_ARM_LENGTH;
-
-        GLine upperArm = new GLine(upperArmStartX, centerY, centerX, centerY);
-        GLine lowerArm = new GLine(upperArmStartX, centerY, upperArmStartX, centerY + LOWER_ARM_LENGTH);
-
-        add(upperArm);
-        add(lowerArm);
-    }
-
-    private void drawRightHand(int centerX, int centerY) {
-        int upperArmEndX = centerX + UPPER_ARM_LENGTH;
-
-        GLine upperArm = new GLine(centerX, centerY, upperArmEndX, centerY);
-        GLine lowerArm = new GLine(upperArmEndX, centerY, upperArmEndX, centerY + LOWER_ARM_LENGTH);
-
-        add(upperArm);
-        add(lowerArm);
-    }
-
-    private void drawLeftLeg(int centerX, int bodyEndY) {
-        int upperLegStartX = centerX - HIP_WIDTH;
-        GLine upperLeg = new GLine(upperLegStartX, bodyEndY, centerX, bodyEndY);
-        GLine lowerLeg = new GLine(upperLegStartX, bodyEndY, upperLegStartX, bodyEndY + LEG_LENGTH);
-
-        add(upperLeg);
-        add(lowerLeg);
-    }
-
-    private void drawRightLeg(int centerX, int bodyEndY) {
-        int upperLegEndX = centerX + HIP_WIDTH;
-        GLine upperLeg = new GLine(centerX, bodyEndY, upperLegEndX, bodyEndY);
-        GLine lowerLeg = new GLine(upperLegEndX, bodyEndY, upperLegEndX, bodyEndY + LEG_LENGTH);
-
-        add(upperLeg);
-        add(lowerLeg);
-    }
-
-    private void drawLeftFoot(int centerX, int bodyEndY) {
-        int startingX = centerX - HIP_WIDTH - FOOT_LENGTH;
-        int footY = bodyEndY + LEG_LENGTH;
-
-        GLine foot = new GLine(startingX, footY, startingX + FOOT_LENGTH, footY);
-        add(foot);
-    }
-
-    private void drawRightFoot(int centerX, int bodyEndY) {
-        int startingX = centerX + HIP_WIDTH;
-        int footY = bodyEndY + LEG_LENGTH;
-
-        GLine foot = new GLine(startingX, footY, startingX + FOOT_LENGTH, footY);
-        add(foot);
-    }
-
 /* Constants for the simple version of the picture (in pixels) */
     private static final int WORD_X_OFFSET = 50;
     private static final int WORD_GAP_HEIGHT = 60;
@@ -208,12 +120,6 @@ public class HangmanCanvas extends GCanvas {
 	private static final int BEAM_LENGTH = 144;
 	private static final int ROPE_LENGTH = 18;
 	private static final int HEAD_RADIUS = 36;
-	private static final int BODY_LENGTH = 144;
 	private static final int ARM_OFFSET_FROM_HEAD = 28;
-	private static final int UPPER_ARM_LENGTH = 72;
-	private static final int LOWER_ARM_LENGTH = 44;
-	private static final int HIP_WIDTH = 36;
-	private static final int LEG_LENGTH = 108;
-	private static final int FOOT_LENGTH = 28;
 
 }
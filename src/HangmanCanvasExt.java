@@ -1,30 +1,78 @@
 /*
- * File: HangmanCanvas.java
- * ------------------------
+ * File: HangmanCanvasExt.java
+ * ---------------------------
  * This file keeps track of the Hangman display.
+ *
+ * The scene is built once and kept between rounds: the scaffold, the
+ * figure image (showing the pre-rendered frame for the number of wrong
+ * guesses), the labels and the timer bar are the same objects each
+ * round.  The canvas doesn't repaint itself on every change; changes
+ * mark the area they touched as dirty and the dirty area is repainted
+ * at most once per display frame.
  */
 
 import acm.graphics.*;
 import java.awt.*;
 
 public class HangmanCanvasExt extends GCanvas {
+    private static final HangmanMetrics.Histogram RENDER_TIME =
+            HangmanMetrics.histogram("hangman_render_seconds", "canvas=\"ext\"", "Time to paint a canvas",
+                    HangmanMetrics.NANOS, HangmanMetrics.exponentialBounds(10000, 2, 16));
+
     private GLabel wordLabel;
     private GLabel wrongGuessLabel;
+    private GLabel roundLabel;
 
     private GRect timerBar;
     private GRect fillerBar;
 
+    private GImage figure;
+    private HangmanSpriteCache.Frames figureFrames;
+    private int sceneWidth = -1;
+    private int sceneHeight = -1;
+
+    private final Rectangle dirty = new Rectangle();
+    private boolean repaintPending = false;
+    private final javax.swing.Timer repaintTimer;
+
+    public HangmanCanvasExt() {
+        setAutoRepaintFlag(false);
+
+        repaintTimer = new javax.swing.Timer(getFrameMillis(), e -> repaintDirty());
+        repaintTimer.setRepeats(false);
+    }
+
+    public void paint(Graphics g) {
+        long start = System.nanoTime();
+        super.paint(g);
+        RENDER_TIME.record(System.nanoTime() - start);
+    }
+
 /** Resets the display so that only the scaffold appears */
 	public void reset() {
+        if (getWidth() != sceneWidth || getHeight() != sceneHeight) {
+            buildScene();
+            return;
+        }
+
+        showFigure(0);
+        setLabel(wordLabel, "");
+        setLabel(wrongGuessLabel, "");
+        updateTimer(1, 1);
+	}
+
+    // creates every object of the scene; only needed again when the canvas is resized
+    private void buildScene() {
         removeAll();
-        removeLabels();
+        sceneWidth = getWidth();
+        sceneHeight = getHeight();
+
         drawStructure();
         drawTimer();
-	}
+        drawLabels();
+        drawFigure();
 
-    private void removeLabels() {
-        wordLabel = null;
-        wrongGuessLabel = null;
+        repaint();
     }
 
     // draw all structures
@@ -37,22 +85,44 @@ public class HangmanCanvasExt extends GCanvas {
         drawRope(startingY);
     }
 
+    private void drawLabels() {
+        wordLabel = new GLabel("");
+        wordLabel.setFont(new Font("Arial", Font.PLAIN, 20));
+        add(wordLabel, WORD_X_OFFSET, getHeight() / 2 + SCAFFOLD_HEIGHT);
+
+        wrongGuessLabel = new GLabel("");
+        wrongGuessLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+        add(wrongGuessLabel, WORD_X_OFFSET, getHeight() / 2 + SCAFFOLD_HEIGHT + WORD_GAP_HEIGHT);
+
+        roundLabel = new GLabel("");
+        roundLabel.setFont(new Font("SansSerif", Font.BOLD, 20));
+        roundLabel.setColor(Color.RED);
+        // draw along the timer bar
+        add(roundLabel, 0, BAR_Y_OFFSET + roundLabel.getAscent());
+    }
+
+    private void drawFigure() {
+        figureFrames = HangmanSpriteCache.getFrames(getWidth(), getHeight());
+        figure = new GImage(figureFrames.get(0));
+        add(figure, figureFrames.getX(), figureFrames.getY());
+    }
+
+    // swaps in the pre-rendered frame for the number of wrong guesses
+    private void showFigure(int wrongGuessNum) {
+        Image frame = figureFrames.get(wrongGuessNum);
+        if (figure.getImage() == frame) return;
+
+        figure.setImage(frame);
+        markDirty(figure);
+    }
+
 /**
  * Updates the word on the screen to correspond to the current
  * state of the game.  The argument string shows what letters have
  * been guessed so far; unguessed letters are indicated by hyphens.
  */
 	public void displayWord(String word) {
-        int labelY = getHeight() / 2 + SCAFFOLD_HEIGHT;
-
-        if (wordLabel == null) {
-            wordLabel = new GLabel(word);
-            wordLabel.setFont(new Font("Arial", Font.PLAIN, 20));
-
-            add(wordLabel, WORD_X_OFFSET, labelY);
-        } else {
-            wordLabel.setLabel(word);
-        }
+        setLabel(wordLabel, word);
 	}
 
 /**
@@ -61,7 +131,12 @@ public class HangmanCanvasExt extends GCanvas {
  */
     public void updateTimer(int timeLeft, int roundTime) {
         double fillRatio = (double) timeLeft / (double) roundTime;
-        fillerBar.setSize(BAR_WIDTH * fillRatio, BAR_HEIGHT);
+        double width = BAR_WIDTH * fillRatio;
+        if (width == fillerBar.getWidth()) return;
+
+        markDirty(fillerBar);
+        fillerBar.setSize(width, BAR_HEIGHT);
+        markDirty(fillerBar);
     }
 
     // draws the initial state of the time bar
@@ -82,68 +157,69 @@ public class HangmanCanvasExt extends GCanvas {
  * guesses that appears at the bottom of the window.
  */
 	public void noteIncorrectGuess(char letter, int wrongGuessNum) {
-        if (wrongGuessLabel == null) {
-            wrongGuessLabel = new GLabel("");
-            wrongGuessLabel.setFont(new Font("Arial", Font.PLAIN, 14));
-
-            int labelY = getHeight() / 2 + SCAFFOLD_HEIGHT + WORD_GAP_HEIGHT;
-            add(wrongGuessLabel, WORD_X_OFFSET, labelY);
-        }
-
         String prevText = wrongGuessLabel.getLabel();
-        if (!prevText.contains("" + letter)) {
-            wrongGuessLabel.setLabel(prevText + letter);
+        if (prevText.indexOf(letter) < 0) {
+            setLabel(wrongGuessLabel, prevText + letter);
         }
 
-        drawBodyPart(wrongGuessNum);
+        showFigure(wrongGuessNum);
 	}
 
 /*
  * Displays the current number of rounds player has reached
  */
     public void drawRoundCount(int num) {
-        GLabel roundLabel = new GLabel("Round " + num);
-        roundLabel.setFont(new Font("SansSerif", Font.BOLD, 20));
-        roundLabel.setColor(Color.RED);
+        setLabel(roundLabel, "Round " + num);
+    }
 
-        // draw along the timer bar
-        add(roundLabel, 0, BAR_Y_OFFSET + roundLabel.getAscent());
+    private void setLabel(GLabel label, String text) {
+        if (text.equals(label.getLabel())) return;
+
+        markDirty(label);
+        label.setLabel(text);
+        markDirty(label);
     }
 
-    // draw a body part according to the number of wrong guesses
-    private void drawBodyPart(int num) {
-        int centerX = getWidth() / 2;
-        int centerY = getHeight() / 2;
-
-        int bodyStartY = centerY - ARM_OFFSET_FROM_HEAD;
-        int bodyEndY = bodyStartY + BODY_LENGTH;
-
-        switch (num) {
-        case 1:
-            drawHead(centerX, centerY);
-            break;
-        case 2:
-            drawBody(centerX, centerY, bodyStartY, bodyEndY);
-            break;
-        case 3:
-            drawLeftHand(centerX, centerY);
-            break;
-        case 4:
-            drawRightHand(centerX, centerY);
-            break;
-        case 5:
-            drawLeftLeg(centerX, bodyEndY);
-            break;
-        case 6:
-            drawRightLeg(centerX, bodyEndY);
-            break;
-        case 7:
-            drawLeftFoot(centerX, bodyEndY);
-            break;
-        case 8:
-            drawRightFoot(centerX, bodyEndY);
-            break;
+    /*
+     *  ~~ DIRTY-REGION REPAINTING ~~
+     *
+     *  The canvas is only used on the event dispatch thread (HangmanExt
+     *  hands every change to it through ui()), as is the frame timer,
+     *  so the dirty area needs no lock.  The first change of a frame
+     *  starts the frame timer; later ones only grow the area.
+     */
+    private void markDirty(GObject obj) {
+        GRectangle bounds = obj.getBounds();
+        int x = (int) Math.floor(bounds.getX()) - DIRTY_MARGIN;
+        int y = (int) Math.floor(bounds.getY()) - DIRTY_MARGIN;
+        int width = (int) Math.ceil(bounds.getWidth()) + 2 * DIRTY_MARGIN;
+        int height = (int) Math.ceil(bounds.getHeight()) + 2 * DIRTY_MARGIN;
+
+        if (repaintPending) {
+            dirty.add(new Rectangle(x, y, width, height));
+        } else {
+            dirty.setBounds(x, y, width, height);
+            repaintPending = true;
+            repaintTimer.restart();
+        }
+    }
+
+    // runs on the event dispatch thread once per frame
+    private void repaintDirty() {
+        repaintPending = false;
+        repaint(dirty.x, dirty.y, dirty.width, dirty.height);
+    }
+
+/** Returns the frame length of the screen's refresh rate in milliseconds, for 60 Hz when it isn't known. */
+    public static int getFrameMillis() {
+        int refreshRate = DisplayMode.REFRESH_RATE_UNKNOWN;
+        if (!GraphicsEnvironment.isHeadless()) {
+            refreshRate = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDisplayMode().getRefreshRate();
         }
+        if (refreshRate <= 0) refreshRate = DEFAULT_REFRESH_RATE;
+
+        return Math.max(1, 1000 / refreshRate);
     }
 
     /*
@@ -165,95 +241,19 @@ public class HangmanCanvasExt extends GCanvas {
         add(rope);
     }
 
-    /*
-     *  ~~ DRAW METHODS FOR THE BODY PARTS ~~
-     */
-    private void drawHead(int centerX, int centerY) {
-        int headDiameter = 2 * HEAD_RADIUS;
-
-        int headX = centerX - HEAD_RADIUS;
-        int headY = centerY - ARM_OFFSET_FROM_HEAD - headDiameter;
-
-        GOval head = new GOval(headX, headY, headDiameter, headDiameter);
-        add(head);
-    }
-
-    private void drawBody(int centerX, int centerY, int bodyStartY, int bodyEndY) {
-        GLine body = new GLine(centerX, bodyStartY, centerX, bodyEndY);
-        add(body);
-    }
-
-    private void drawLeftHand(int centerX, int centerY) {
-        int upperArmStartX = centerX - UPPER_ARM_LENGTH;
-
-        GLine upperArm = new GLine(upperArmStartX, centerY, centerX, centerY);
-        GLine lowerArm = new GLine(upperArmStartX, centerY, upperArmStartX, centerY + LOWER_ARM_LENGTH);
-
-        add(upperArm);
-        add(lowerArm);
-    }
-
-    private void drawRightHand(int centerX, int centerY) {
-        int upperArmEndX = centerX + UPPER_ARM_LENGTH;
-
-        GLine upperArm = new GLine(centerX, centerY, upperArmEndX, centerY);
-        GLine lowerArm = new GLine(upperArmEndX, centerY, upperArmEndX, centerY + LOWER_ARM_LENGTH);
-
-        add(upperArm);
-        add(lowerArm);
-    }
-
-    private void drawLeftLeg(int centerX, int bodyEndY) {
-        int upperLegStartX = centerX - HIP_WIDTH;
-        GLine upperLeg = new GLine(upperLegStartX, bodyEndY, centerX, bodyEndY);
-        GLine lowerLeg = new GLine(upperLegStartX, bodyEndY, upperLegStartX, bodyEndY + LEG_LENGTH);
-
-        add(upperLeg);
-        add(lowerLeg);
-    }
-
-    private void drawRightLeg(int centerX, int bodyEndY) {
-        int upperLegEndX = centerX + HIP_WIDTH;
-        GLine upperLeg = new GLine(centerX, bodyEndY, upperLegEndX, bodyEndY);
-        GLine lowerLeg = new GLine(upperLegEndX, bodyEndY, upperLegEndX, bodyEndY + LEG_LENGTH);
-
-        add(upperLeg);
-        add(lowerLeg);
-    }
-
-    private void drawLeftFoot(int centerX, int bodyEndY) {
-        int startingX = centerX - HIP_WIDTH - FOOT_LENGTH;
-        int footY = bodyEndY + LEG_LENGTH;
-
-        GLine foot = new GLine(startingX, footY, startingX + FOOT_LENGTH, footY);
-        add(foot);
-    }
-
-    private void drawRightFoot(int centerX, int bodyEndY) {
-        int startingX = centerX + HIP_WIDTH;
-        int footY = bodyEndY + LEG_LENGTH;
-
-        GLine foot = new GLine(startingX, footY, startingX + FOOT_LENGTH, footY);
-        add(foot);
-    }
-
 /* Constants for the simple version of the picture (in pixels) */
     private static final int WORD_X_OFFSET = 50;
     private static final int WORD_GAP_HEIGHT = 60;
     private static final int BAR_Y_OFFSET = 40;
     private static final double BAR_WIDTH = 200;
     private static final double BAR_HEIGHT = 50;
+    private static final int DIRTY_MARGIN = 2;     // room for line width and antialiasing
+    private static final int DEFAULT_REFRESH_RATE = 60;
 
 	private static final int SCAFFOLD_HEIGHT = 360;
 	private static final int BEAM_LENGTH = 144;
 	private static final int ROPE_LENGTH = 18;
 	private static final int HEAD_RADIUS = 36;
-	private static final int BODY_LENGTH = 144;
 	private static final int ARM_OFFSET_FROM_HEAD = 28;
-	private static final int UPPER_ARM_LENGTH = 72;
-	private static final int LOWER_ARM_LENGTH = 44;
-	private static final int HIP_WIDTH = 36;
-	private static final int LEG_LENGTH = 108;
-	private static final int FOOT_LENGTH = 28;
 
 }
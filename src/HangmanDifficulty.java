@@ -0,0 +1,297 @@
+/*
+ * File: HangmanDifficulty.java
+ * ----------------------------
+ * This file scores how hard every word of a lexicon is, for
+ * HangmanWordIndex to order its difficulty bands by.  A score of
+ * 0..MAX_SCORE combines:
+ *   - how many wrong guesses HangmanFrequencyStrategy makes on the word
+ *     (a loss counts as GUESS_COUNT), which weighs the most
+ *   - how rare its distinct letters are across the lexicon
+ *   - how few distinct letters it has
+ *   - how short it is
+ *
+ * Playing the solver is the costly part, so words are scored in
+ * parallel chunks on the common fork/join pool and the scores are kept
+ * in a file next to the lexicon.  Run this class to score a lexicon
+ * ahead of time; HangmanLexicon otherwise scores in the background.
+ * Scores are looked up by a hash of the word, so when words are added
+ * only the new ones are scored; the words already in the file keep
+ * their scores even though the letter rarities and the solver's
+ * lexicon have shifted a little.
+ *
+ * File layout (big-endian):
+ *   header    "HDIF", version (int), word count (int)
+ *   entries   one long each: the top 56 bits of the word's 64-bit
+ *             FNV-1a hash, with the score in the low 8 bits; sorted
+ *
+ * Usage: java HangmanDifficulty [lexicon path] [-rescore]
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+public class HangmanDifficulty {
+    public static final int MAX_SCORE = 100;
+
+    private static final String DEFAULT_PATH = "./HangmanLexicon.txt";
+    private static final String TEXT_SUFFIX = ".txt";
+    private static final String SCORE_SUFFIX = ".scores";
+    private static final int MAGIC = 0x48444946;  // "HDIF"
+    private static final int VERSION = 1;         // bump when the formula changes, to rescore everything
+    private static final int HEADER_SIZE = 12;
+    private static final int ENTRY_SIZE = 8;
+    private static final long SCORE_BITS = 0xFF;
+    private static final int CHUNK_SIZE = 256;    // words per parallel task
+
+    /* Weights of the parts of a score; they add up to MAX_SCORE */
+    private static final int SOLVER_WEIGHT = 55;
+    private static final int RARITY_WEIGHT = 20;
+    private static final int DISTINCT_WEIGHT = 15;
+    private static final int LENGTH_WEIGHT = 10;
+
+    private static final int FEW_LETTERS = 8;   // distinct letters from which a word gets no bonus
+    private static final int SHORT_WORD = 10;   // length from which a word gets no bonus
+
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private final HangmanWordStore store;
+    private final int[] scores;
+    private int scoredCount;  // words that were not in the score file
+
+    private HangmanDifficulty(HangmanWordStore store) {
+        this.store = store;
+        this.scores = new int[store.getWordCount()];
+    }
+
+    public static void main(String[] args) throws IOException {
+        String path = args.length > 0 && !args[0].startsWith("-") ? args[0] : DEFAULT_PATH;
+        boolean rescore = Arrays.asList(args).contains("-rescore");
+        Path scorePath = Paths.get(getScorePath(path));
+        if (rescore) Files.deleteIfExists(scorePath);
+
+        HangmanWordStore store = HangmanWordStore.open(path);
+        long start = System.nanoTime();
+        HangmanDifficulty difficulty = load(store, scorePath);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d words, %d scored and %d reused from %s in %.2f s on %d cores%n",
+                store.getWordCount(), difficulty.scoredCount, store.getWordCount() - difficulty.scoredCount,
+                scorePath, seconds, Runtime.getRuntime().availableProcessors());
+
+        int[] histogram = new int[MAX_SCORE / 10 + 1];
+        for (int score : difficulty.scores) histogram[score / 10]++;
+        for (int i = 0; i < histogram.length; i++) {
+            if (histogram[i] > 0) System.out.printf("  score %3d-%-3d %8d words%n", i * 10, i * 10 + 9, histogram[i]);
+        }
+    }
+
+/** Returns where the scores of a lexicon file are kept: next to it, with a .scores suffix. */
+    public static String getScorePath(String lexiconPath) {
+        if (lexiconPath.endsWith(TEXT_SUFFIX)) {
+            return lexiconPath.substring(0, lexiconPath.length() - TEXT_SUFFIX.length()) + SCORE_SUFFIX;
+        }
+
+        return lexiconPath + SCORE_SUFFIX;
+    }
+
+/**
+ * Returns the scores of a lexicon file, indexed like its word store.
+ * Words missing from the score file next to it are scored and the file
+ * is rewritten; if it can't be written the scores are still returned.
+ */
+    public static int[] scoresFor(String lexiconPath, HangmanWordStore store) throws IOException {
+        return load(store, Paths.get(getScorePath(lexiconPath))).scores;
+    }
+
+/**
+ * Returns the scores of a lexicon file if the score file next to it has
+ * every word, without scoring anything; null otherwise.
+ */
+    public static int[] cachedScoresFor(String lexiconPath, HangmanWordStore store) throws IOException {
+        HangmanDifficulty difficulty = new HangmanDifficulty(store);
+        int[] missing = difficulty.readScores(Paths.get(getScorePath(lexiconPath)));
+        return missing.length == 0 ? difficulty.scores : null;
+    }
+
+/** Reads the score file (if any), scores the words it doesn't have and saves them back. */
+    public static HangmanDifficulty load(HangmanWordStore store, Path scorePath) throws IOException {
+        HangmanDifficulty difficulty = new HangmanDifficulty(store);
+        int[] missing = difficulty.readScores(scorePath);
+        if (missing.length == 0) return difficulty;
+
+        difficulty.scoreWords(missing);
+        difficulty.scoredCount = missing.length;
+        try {
+            difficulty.writeScores(scorePath);
+        } catch (IOException e) {
+            System.err.println("cannot save word scores to " + scorePath + ": " + e.getMessage());
+        }
+
+        return difficulty;
+    }
+
+/** Returns the score of every word, indexed like the word store. */
+    public int[] getScores() {
+        return scores;
+    }
+
+/** Returns how many words had to be scored because the score file didn't have them. */
+    public int getScoredCount() {
+        return scoredCount;
+    }
+
+    // fills in the known scores and returns the indices of the words the file doesn't have
+    private int[] readScores(Path scorePath) throws IOException {
+        long[] entries = new long[0];
+        if (Files.isRegularFile(scorePath)) {
+            try (FileChannel channel = FileChannel.open(scorePath, StandardOpenOption.READ)) {
+                ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (in.remaining() >= HEADER_SIZE && in.getInt() == MAGIC && in.getInt() == VERSION) {
+                    int count = in.getInt();
+                    if (count >= 0 && in.remaining() >= (long) count * ENTRY_SIZE) {
+                        entries = new long[count];
+                        in.asLongBuffer().get(entries);
+                    }
+                }
+            }
+        }
+
+        int[] missing = new int[scores.length];
+        int missingCount = 0;
+        for (int i = 0; i < scores.length; i++) {
+            long key = hashKey(i);
+            int found = Arrays.binarySearch(entries, key);
+            if (found < 0) found = -found - 1;
+
+            if (found < entries.length && (entries[found] & ~SCORE_BITS) == key) {
+                scores[i] = (int) (entries[found] & SCORE_BITS);
+            } else {
+                missing[missingCount++] = i;
+            }
+        }
+
+        return Arrays.copyOf(missing, missingCount);
+    }
+
+    // writes every word's score, replacing the file in one step
+    private void writeScores(Path scorePath) throws IOException {
+        long[] entries = new long[scores.length];
+        for (int i = 0; i < scores.length; i++) {
+            entries[i] = hashKey(i) | scores[i];
+        }
+        Arrays.sort(entries);
+
+        int count = 0;
+        for (int i = 0; i < entries.length; i++) {
+            if (i == 0 || entries[i] != entries[i - 1]) entries[count++] = entries[i];  // drop duplicate words
+        }
+
+        Path dir = scorePath.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, scorePath.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                out.writeLong(entries[i]);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+
+        Files.move(tmp, scorePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // the top 56 bits of the FNV-1a hash of a word, read straight from the store
+    private long hashKey(int word) {
+        long hash = FNV_OFFSET;
+        for (int pos = 0, length = store.getWordLength(word); pos < length; pos++) {
+            hash = (hash ^ store.getLetter(word, pos)) * FNV_PRIME;
+        }
+
+        return hash & ~SCORE_BITS;
+    }
+
+    /*
+     * Scores the given words on all cores.  Letter rarity is taken over
+     * the whole lexicon; every task plays its words against its own
+     * solver, which only reads the shared candidate index.
+     */
+    private void scoreWords(int[] words) {
+        HangmanWordIndex index = new HangmanWordIndex(store);
+        HangmanCandidateIndex candidates = new HangmanCandidateIndex(store, index);
+        int[] rarity = letterRarity(index);
+
+        int chunks = (words.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            HangmanStrategy solver = new HangmanFrequencyStrategy(candidates);
+            HangmanRound round = new HangmanRound();
+            for (int i = chunk * CHUNK_SIZE, end = Math.min(words.length, i + CHUNK_SIZE); i < end; i++) {
+                int word = words[i];
+                scores[word] = score(index.getLetterMask(word), store.getWordLength(word), rarity,
+                        wrongGuesses(store.getWord(word), round, solver));
+            }
+        });
+    }
+
+    // how rare each letter is, 0..100 by the share of words that don't contain it
+    private int[] letterRarity(HangmanWordIndex index) {
+        int count = store.getWordCount();
+        int[] presence = new int[HangmanWordIndex.ALPHABET_SIZE];
+        for (int i = 0; i < count; i++) {
+            int mask = index.getLetterMask(i);
+            while (mask != 0) {
+                presence[Integer.numberOfTrailingZeros(mask)]++;
+                mask &= mask - 1;
+            }
+        }
+
+        int[] rarity = new int[HangmanWordIndex.ALPHABET_SIZE];
+        for (int letter = 0; letter < rarity.length; letter++) {
+            rarity[letter] = count == 0 ? 0 : 100 - (int) (100L * presence[letter] / count);
+        }
+
+        return rarity;
+    }
+
+    // plays the word against the solver with the game's limit of wrong guesses
+    private static int wrongGuesses(String word, HangmanRound round, HangmanStrategy solver) {
+        round.start(word);
+        solver.roundStarted(round);
+
+        int wrong = 0;
+        while (!round.isSolved() && wrong < HangmanEngine.GUESS_COUNT) {
+            if (round.guess(solver.nextGuess(round)) == HangmanRound.INCORRECT) wrong++;
+        }
+
+        return wrong;
+    }
+
+    private static int score(int letterMask, int length, int[] rarity, int wrongGuesses) {
+        int distinct = Integer.bitCount(letterMask);
+        if (distinct == 0) return 0;
+
+        int raritySum = 0;
+        for (int mask = letterMask; mask != 0; mask &= mask - 1) {
+            raritySum += rarity[Integer.numberOfTrailingZeros(mask)];
+        }
+
+        int score = SOLVER_WEIGHT * wrongGuesses / HangmanEngine.GUESS_COUNT
+                + RARITY_WEIGHT * raritySum / distinct / 100
+                + DISTINCT_WEIGHT * Math.max(0, FEW_LETTERS - distinct) / FEW_LETTERS
+                + LENGTH_WEIGHT * Math.max(0, SHORT_WORD - length) / SHORT_WORD;
+        return Math.min(MAX_SCORE, score);
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * File: HangmanEngine.java
+ * ------------------------
+ * This file contains the rules of the game without any input or
+ * display: how many wrong guesses are allowed, how letters are
+ * revealed, when a round is won or lost and, for timed rounds, the
+ * shrinking round clock with its bonus second per correct guess.
+ * Everything the player should see is reported to a HangmanListener.
+ *
+ * An engine is not thread-safe; it is driven from one thread at a time.
+ * The time left is a deadline on a nanosecond clock, so tick() only
+ * reads it and a correct guess's bonus second just moves it.
+ *
+ * Every engine in the JVM records into the same HangmanMetrics: rounds
+ * started, won and lost (by time or by guesses), guesses per round and
+ * the time the player took for each guess.  Engines that play games no
+ * player sees, such as simulations, turn this off and don't read the
+ * clock for every guess.
+ *
+ * With a HangmanAdversary set, the word a round starts with only fixes
+ * its length: before every new guess the adversary may switch to any
+ * other word that fits what has been revealed.
+ */
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+public class HangmanEngine {
+    public static final int GUESS_COUNT = 8;
+    public static final int ROUND_TIME = 30;
+
+/** Returned by guess when no round is running. */
+    public static final int ROUND_OVER = -1;
+
+    private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final HangmanMetrics.Counter ROUNDS_STARTED =
+            HangmanMetrics.counter("hangman_rounds_started_total", "Rounds started");
+    private static final HangmanMetrics.Counter ROUNDS_WON =
+            HangmanMetrics.counter("hangman_rounds_won_total", "Rounds won");
+    private static final HangmanMetrics.Counter ROUNDS_LOST_TIMER =
+            HangmanMetrics.counter("hangman_rounds_lost_total", "cause=\"timer\"", "Rounds lost");
+    private static final HangmanMetrics.Counter ROUNDS_LOST_GUESSES =
+            HangmanMetrics.counter("hangman_rounds_lost_total", "cause=\"guesses\"", "Rounds lost");
+    private static final HangmanMetrics.Histogram GUESSES_PER_ROUND =
+            HangmanMetrics.histogram("hangman_round_guesses", "", "Letters guessed in a finished round",
+                    1, HangmanMetrics.linearBounds(HangmanWordIndex.ALPHABET_SIZE));
+    private static final HangmanMetrics.Histogram GUESS_TIME =
+            HangmanMetrics.histogram("hangman_guess_seconds", "", "Time from the round start or last guess to a guess",
+                    HangmanMetrics.NANOS, HangmanMetrics.exponentialBounds(TimeUnit.MILLISECONDS.toNanos(100), 2, 10));
+
+    private final HangmanRound round = new HangmanRound();
+    private final HangmanListener listener;
+    private final boolean timed;
+    private final LongSupplier clock;  // nanoseconds
+    private final AtomicLong deadline = new AtomicLong();
+
+    private boolean recordingMetrics = true;
+    private HangmanAdversary adversary;
+    private HangmanAdversary roundAdversary;  // the adversary the current round started with
+    private String currentWord;
+    private boolean roundRunning = false;
+    private int attemptCount;
+    private int roundNum = 0;
+    private int roundTime;
+    private int guessCount;
+    private long lastGuessAt;  // clock nanos
+
+/** Creates an engine for untimed rounds. */
+    public HangmanEngine(HangmanListener listener) {
+        this(listener, false);
+    }
+
+/**
+ * Creates an engine; in timed mode every round lasts ROUND_TIME seconds
+ * minus one per round already passed, and tick() runs the clock.
+ */
+    public HangmanEngine(HangmanListener listener, boolean timed) {
+        this(listener, timed, System::nanoTime);
+    }
+
+/** Creates an engine whose round clock reads nanoseconds from the given clock. */
+    public HangmanEngine(HangmanListener listener, boolean timed, LongSupplier clock) {
+        this.listener = listener;
+        this.timed = timed;
+        this.clock = clock;
+    }
+
+/** Turns recording the game metrics on (the default) or off, for engines that play simulated games. */
+    public void setRecordingMetrics(boolean recordingMetrics) {
+        this.recordingMetrics = recordingMetrics;
+    }
+
+/** Lets an adversary change the secret word between guesses, from the next round on; null turns it off. */
+    public void setAdversary(HangmanAdversary adversary) {
+        this.adversary = adversary;
+    }
+
+/** Starts a new round with the given secret word. */
+    public void startRound(String word) {
+        roundRunning = true;
+        roundNum++;
+        roundTime = ROUND_TIME - roundNum;  // decrease time as player passes rounds
+        deadline.set(clock.getAsLong() + TimeUnit.SECONDS.toNanos(roundTime));
+        attemptCount = GUESS_COUNT;
+        guessCount = 0;
+        if (recordingMetrics) {
+            lastGuessAt = clock.getAsLong();
+            ROUNDS_STARTED.increment();
+        }
+
+        currentWord = word;
+        round.start(word);
+        roundAdversary = adversary;
+        if (roundAdversary != null) roundAdversary.roundStarted(round);
+
+        listener.roundStarted(this);
+    }
+
+/**
+ * Applies an uppercase letter guess and returns the HangmanRound
+ * result (CORRECT, INCORRECT or REPEATED), or ROUND_OVER if no round
+ * is running.
+ */
+    public int guess(char letter) {
+        if (!roundRunning) {
+            return ROUND_OVER;
+        }
+
+        if (roundAdversary != null && !round.isGuessed(letter)) {
+            currentWord = roundAdversary.chooseWord(round, letter);
+            round.replaceWord(currentWord);
+        }
+
+        int result = round.guess(letter);
+        if (result != HangmanRound.REPEATED) {
+            if (recordingMetrics) {
+                long now = clock.getAsLong();
+                GUESS_TIME.record(now - lastGuessAt);
+                lastGuessAt = now;
+            }
+            guessCount++;
+        }
+
+        if (result == HangmanRound.CORRECT) {
+            if (timed) deadline.addAndGet(SECOND_NANOS);  // +1 sec for every correct guess
+            listener.correctGuess(this, letter);
+
+            if (round.isSolved()) {
+                roundRunning = false;
+                if (recordingMetrics) {
+                    ROUNDS_WON.increment();
+                    GUESSES_PER_ROUND.record(guessCount);
+                }
+                listener.roundWon(this);
+            }
+        } else if (result == HangmanRound.INCORRECT) {
+            attemptCount--;
+            listener.incorrectGuess(this, letter, GUESS_COUNT - attemptCount);
+
+            if (attemptCount <= 0) {
+                endWithLoss(false);
+            }
+        }
+
+        return result;
+    }
+
+/** Checks the clock of a timed round; called about once a second. */
+    public void tick() {
+        if (!timed || !roundRunning) {
+            return;
+        }
+
+        int timeLeft = getTimeLeft();
+        listener.timerTicked(this, timeLeft, roundTime);
+        if (timeLeft <= 0) {
+            endWithLoss(true);
+        }
+    }
+
+    private void endWithLoss(boolean timedOut) {
+        roundRunning = false;
+        if (recordingMetrics) {
+            (timedOut ? ROUNDS_LOST_TIMER : ROUNDS_LOST_GUESSES).increment();
+            GUESSES_PER_ROUND.record(guessCount);
+        }
+        listener.roundLost(this, timedOut);
+        roundNum = 0;
+    }
+
+/** Returns true while the current round is being played. */
+    public boolean isRoundRunning() {
+        return roundRunning;
+    }
+
+/** Returns the secret word of the current (or last) round. */
+    public String getCurrentWord() {
+        return currentWord;
+    }
+
+/** Returns the word as the player sees it, with hyphens for hidden letters. */
+    public String getGuessedWord() {
+        return round.getGuessedWord();
+    }
+
+/** Returns the round state, for callers that read it without allocating. */
+    public HangmanRound getRound() {
+        return round;
+    }
+
+/** Returns how many wrong guesses the player has left. */
+    public int getAttemptCount() {
+        return attemptCount;
+    }
+
+/** Returns the number of rounds won in a row, counting the current one. */
+    public int getRoundNum() {
+        return roundNum;
+    }
+
+/** Returns the whole seconds left in a timed round, rounded up. */
+    public int getTimeLeft() {
+        long nanosLeft = deadline.get() - clock.getAsLong();
+        if (nanosLeft <= 0) return 0;
+
+        return (int) ((nanosLeft + SECOND_NANOS - 1) / SECOND_NANOS);
+    }
+
+/** Returns the length of the current timed round in seconds. */
+    public int getRoundTime() {
+        return roundTime;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * File: HangmanEventQueue.java
+ * ----------------------------
+ * This file contains a lock-free queue for many producer threads and a
+ * single consumer thread.  Producers link their node in with one atomic
+ * swap of the tail and never wait for each other or for the consumer;
+ * only the consumer moves the head, so it needs no atomics at all.
+ *
+ * The consumer can also wait for an element: it parks, and every
+ * producer unparks it after linking a node.  A producer may be between
+ * the swap and the link for a moment, in which case the queue looks
+ * empty to poll() -- the unpark that follows the link covers that.
+ */
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+public class HangmanEventQueue<E> {
+    private final AtomicReference<Node<E>> tail;
+    private Node<E> head;  // consumer only; its value is already taken
+    private volatile Thread waiter;
+
+    public HangmanEventQueue() {
+        Node<E> stub = new Node<>(null);
+        head = stub;
+        tail = new AtomicReference<>(stub);
+    }
+
+/** Adds an element; safe from any thread, never blocks. */
+    public void offer(E element) {
+        Node<E> node = new Node<>(element);
+        Node<E> prev = tail.getAndSet(node);
+        prev.next = node;
+
+        Thread w = waiter;
+        if (w != null) LockSupport.unpark(w);
+    }
+
+/** Removes the oldest element, or returns null if there is none.  Consumer thread only. */
+    public E poll() {
+        Node<E> next = head.next;
+        if (next == null) return null;
+
+        E element = next.value;
+        next.value = null;
+        head = next;
+        return element;
+    }
+
+/** Waits for an element and removes it.  Consumer thread only. */
+    public E take() throws InterruptedException {
+        E element = poll();
+        if (element != null) return element;
+
+        waiter = Thread.currentThread();
+        try {
+            while ((element = poll()) == null) {
+                LockSupport.park(this);
+                if (Thread.interrupted()) throw new InterruptedException();
+            }
+        } finally {
+            waiter = null;
+        }
+
+        return element;
+    }
+
+    private static class Node<E> {
+        E value;
+        volatile Node<E> next;
+
+        Node(E value) {
+            this.value = value;
+        }
+    }
+}
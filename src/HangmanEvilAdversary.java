@@ -0,0 +1,186 @@
+/*
+ * File: HangmanEvilAdversary.java
+ * -------------------------------
+ * This file plays "evil hangman": it keeps every word of the round's
+ * length that fits what has been revealed, and on each guess splits
+ * them into families by the pattern the guess would reveal, keeping
+ * the largest family.  The player only wins once a single family of
+ * one word is left, or by running the adversary out of room.
+ *
+ * A pattern is the mask of positions the guessed letter takes in a
+ * word (0 for a miss), which is all that distinguishes the families of
+ * one guess.  The masks are computed into a long array, in parallel
+ * chunks when there are many candidates, and counted in an
+ * open-addressing long-to-int map; the candidates of the kept family
+ * are then compacted in place.  Nothing is allocated per guess but the
+ * String of the word handed back to the engine.
+ *
+ * An adversary keeps the candidates of one round, so every engine
+ * needs its own instance.
+ */
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+public class HangmanEvilAdversary implements HangmanAdversary {
+    private static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 14;
+    private static final int CHUNK_SIZE = 4096;  // candidates per parallel task
+
+    private final HangmanWordStore store;
+    private final HangmanWordIndex index;
+    private final PatternCounts families = new PatternCounts();
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+    private int[] candidates = new int[0];
+    private long[] patterns = new long[0];
+    private int candidateCount;
+
+    public HangmanEvilAdversary(HangmanWordStore store, HangmanWordIndex index) {
+        this.store = store;
+        this.index = index;
+    }
+
+/** Sets how many candidates a guess needs before its patterns are computed in parallel. */
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+/** Returns how many words still fit the round. */
+    public int getCandidateCount() {
+        return candidateCount;
+    }
+
+    public void roundStarted(HangmanRound round) {
+        int length = round.getLength();
+        int count = store.getLengthCount(length);
+        if (candidates.length < count) {
+            candidates = new int[count];
+            patterns = new long[count];
+        }
+
+        candidateCount = index.copyWordsOfLength(length, candidates);
+    }
+
+    public String chooseWord(HangmanRound round, char letter) {
+        if (candidateCount == 0 || HangmanWordIndex.letterBit(letter) == 0) {
+            return round.getSecretWord();  // a word from outside the lexicon: play it straight
+        }
+
+        if (candidateCount >= parallelThreshold) {
+            int chunks = (candidateCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            IntStream.range(0, chunks).parallel().forEach(chunk -> computePatterns(letter,
+                    chunk * CHUNK_SIZE, Math.min(candidateCount, (chunk + 1) * CHUNK_SIZE)));
+        } else {
+            computePatterns(letter, 0, candidateCount);
+        }
+
+        families.clear();
+        for (int i = 0; i < candidateCount; i++) {
+            families.increment(patterns[i]);
+        }
+        long kept = families.largest();
+
+        int n = 0;
+        for (int i = 0; i < candidateCount; i++) {
+            if (patterns[i] == kept) candidates[n++] = candidates[i];
+        }
+        candidateCount = n;
+
+        return store.getWord(candidates[0]);
+    }
+
+    // the positions of the letter in each candidate from..to
+    private void computePatterns(char letter, int from, int to) {
+        int bit = HangmanWordIndex.letterBit(letter);
+        for (int i = from; i < to; i++) {
+            int word = candidates[i];
+            long pattern = 0;
+            if ((index.getLetterMask(word) & bit) != 0) {
+                int length = store.getWordLength(word);
+                for (int pos = 0; pos < length; pos++) {
+                    if (store.getLetter(word, pos) == letter) pattern |= 1L << pos;
+                }
+            }
+            patterns[i] = pattern;
+        }
+    }
+
+    /*
+     * Counts per pattern, in open addressing with linear probing.  The
+     * empty pattern (a miss) is counted on the side, so 0 can mark a
+     * free slot.
+     */
+    private static class PatternCounts {
+        private long[] keys = new long[64];
+        private int[] counts = new int[64];
+        private int size;
+        private int missCount;
+
+        void clear() {
+            if (size > 0) {
+                Arrays.fill(keys, 0);
+                Arrays.fill(counts, 0);
+            }
+            size = 0;
+            missCount = 0;
+        }
+
+        void increment(long pattern) {
+            if (pattern == 0) {
+                missCount++;
+                return;
+            }
+
+            int slot = find(keys, pattern);
+            if (keys[slot] == 0) {
+                keys[slot] = pattern;
+                if (++size * 2 > keys.length) {
+                    grow();
+                    slot = find(keys, pattern);
+                }
+            }
+            counts[slot]++;
+        }
+
+        // the pattern with the most words; ties go to the miss, then to fewer revealed letters
+        long largest() {
+            long best = 0;
+            int bestCount = missCount;
+            for (int slot = 0; slot < keys.length; slot++) {
+                int count = counts[slot];
+                if (count > bestCount || (count == bestCount && count > 0 && best != 0
+                        && Long.bitCount(keys[slot]) < Long.bitCount(best))) {
+                    best = keys[slot];
+                    bestCount = count;
+                }
+            }
+
+            return best;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = new long[oldKeys.length * 2];
+            counts = new int[oldKeys.length * 2];
+
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldKeys[slot] != 0) {
+                    int to = find(keys, oldKeys[slot]);
+                    keys[to] = oldKeys[slot];
+                    counts[to] = oldCounts[slot];
+                }
+            }
+        }
+
+        private static int find(long[] keys, long pattern) {
+            int mask = keys.length - 1;
+            int slot = (int) ((pattern * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+            while (keys[slot] != 0 && keys[slot] != pattern) {
+                slot = (slot + 1) & mask;
+            }
+
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * File: HangmanEvilBenchmark.java
+ * -------------------------------
+ * This file measures how long HangmanEvilAdversary takes to answer a
+ * guess, by the number of candidate words it has to partition.  Every
+ * word length of the lexicon is played a few times with a fixed letter
+ * order and no limit on the wrong guesses, so the candidate sets shrink
+ * from the whole length bucket down to a single word.  Guesses are
+ * timed once with sequential partitioning and once with the parallel
+ * one, and reported by powers of ten of the candidate count with their
+ * mean and 99th percentile.
+ *
+ * Usage: java HangmanEvilBenchmark [lexicon path] [runs]
+ */
+
+import java.io.IOException;
+import java.util.Arrays;
+
+public class HangmanEvilBenchmark {
+    private static final String DEFAULT_PATH = "./HangmanLexicon.txt";
+    private static final int DEFAULT_RUNS = 5;
+    private static final int WARMUP_RUNS = 2;
+    private static final String GUESS_ORDER = "ESIARNTOLCDUGPMKHBYFVWZXQJ";
+    private static final int BUCKETS = 7;  // 1-9, 10-99, ... 1000000+
+
+    public static void main(String[] args) throws IOException {
+        String path = args.length > 0 ? args[0] : DEFAULT_PATH;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_RUNS;
+
+        HangmanWordStore store = HangmanWordStore.open(path);
+        HangmanWordIndex index = new HangmanWordIndex(store);
+        System.out.println("Lexicon: " + path + " (" + store.getWordCount() + " words, "
+                + Runtime.getRuntime().availableProcessors() + " cores)");
+
+        report("sequential", play(store, index, Integer.MAX_VALUE, runs));
+        report("parallel", play(store, index, 0, runs));
+    }
+
+    // guess times in nanoseconds per candidate count bucket
+    private static long[][] play(HangmanWordStore store, HangmanWordIndex index, int parallelThreshold, int runs) {
+        HangmanEvilAdversary adversary = new HangmanEvilAdversary(store, index);
+        adversary.setParallelThreshold(parallelThreshold);
+        HangmanRound round = new HangmanRound();
+        int[] lengthWords = new int[store.getWordCount()];
+
+        long[][] times = new long[BUCKETS][];
+        int[] counts = new int[BUCKETS];
+        for (int b = 0; b < BUCKETS; b++) times[b] = new long[1024];
+
+        for (int run = -WARMUP_RUNS; run < runs; run++) {
+            for (int length = 1; length <= Math.min(store.getMaxWordLength(), HangmanRound.MAX_WORD_LENGTH); length++) {
+                if (index.copyWordsOfLength(length, lengthWords) == 0) continue;
+
+                round.start(store.getWord(lengthWords[0]));
+                adversary.roundStarted(round);
+                for (int i = 0; i < GUESS_ORDER.length() && !round.isSolved(); i++) {
+                    char letter = GUESS_ORDER.charAt(i);
+                    int candidates = adversary.getCandidateCount();
+
+                    long start = System.nanoTime();
+                    round.replaceWord(adversary.chooseWord(round, letter));
+                    long elapsed = System.nanoTime() - start;
+                    round.guess(letter);
+                    if (run < 0) continue;
+
+                    int b = Math.min(BUCKETS - 1, (int) Math.log10(candidates));
+                    if (counts[b] == times[b].length) times[b] = Arrays.copyOf(times[b], counts[b] * 2);
+                    times[b][counts[b]++] = elapsed;
+                }
+            }
+        }
+
+        for (int b = 0; b < BUCKETS; b++) times[b] = Arrays.copyOf(times[b], counts[b]);
+        return times;
+    }
+
+    private static void report(String name, long[][] times) {
+        System.out.println(name + ":");
+        System.out.printf("  %-18s %8s %12s %12s%n", "candidates", "guesses", "mean us", "p99 us");
+        for (int b = 0; b < BUCKETS; b++) {
+            long[] bucket = times[b];
+            if (bucket.length == 0) continue;
+
+            Arrays.sort(bucket);
+            long sum = 0;
+            for (long t : bucket) sum += t;
+            String range = (long) Math.pow(10, b) + (b == BUCKETS - 1 ? "+" : "-" + ((long) Math.pow(10, b + 1) - 1));
+            System.out.printf("  %-18s %8d %12.1f %12.1f%n", range, bucket.length,
+                    sum / 1e3 / bucket.length, bucket[Math.min(bucket.length - 1, bucket.length * 99 / 100)] / 1e3);
+        }
+    }
+}
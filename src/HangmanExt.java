@@ -2,208 +2,362 @@ import java.io.IOException;
 import java.io.PrintWriter;
 
 import acm.program.ConsoleProgram;
-import acm.util.RandomGenerator;
 import acm.util.SwingTimer;
-import acm.util.MediaTools;
-
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 import java.awt.event.*;
-import java.applet.*;
-
-public class HangmanExt extends ConsoleProgram {
-    private static final int GUESS_COUNT = 8;
-    private static final int ROUND_TIME = 30;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * All game state belongs to the game loop thread: typed lines and the
+ * round clock's ticks are posted to it as events, and the engine and
+ * its listener callbacks only ever run there.  Whatever the player
+ * should see is queued as a UI update and the queue is run on the
+ * event dispatch thread at most once per display frame.
+ *
+ * Each event is stamped with one time that is the engine's clock for
+ * that event, and the same time goes into the game journal (when
+ * -Dhangman.journal=<path> is set), so a replay sees exactly what the
+ * engine saw.
+ *
+ * The word list is reloaded in the background when its file changes
+ * (see HangmanLexiconHolder); the next round starts with the new one.
+ * Words are drawn from shuffle bags, one per difficulty band, with the
+ * game's own seedable HangmanRandom.  -Dhangman.debug=true prints
+ * each round's secret word to standard output, for testing.
+ */
+public class HangmanExt extends ConsoleProgram implements HangmanListener {
     private static final int TIME_BETWEEN_ROUNDS = 300;
+    private static final int DIFFICULTY_BANDS = 10;  // one band harder every round
     private static final String ASSET_PATH = "./assets/";
+    private static final char HINT_CHAR = '?';
+    private static final int LEADERBOARD_SIZE = 3;
+    private static final boolean DEBUG = Boolean.getBoolean("hangman.debug");  // prints each secret word
 
-    private static AudioClip deathSfx = MediaTools.loadAudioClip(ASSET_PATH + "death.wav");
-    private static AudioClip winSfx = MediaTools.loadAudioClip(ASSET_PATH + "win.wav");
-    private static AudioClip incorrectGuessSfx = MediaTools.loadAudioClip(ASSET_PATH + "incorrect.wav");
-    private static AudioClip tickSfx = MediaTools.loadAudioClip(ASSET_PATH + "tick.wav");
+    private static HangmanAudio audio = HangmanAudio.open();
+    private static HangmanAudio.Sound deathSfx = audio.load(ASSET_PATH + "death.wav");
+    private static HangmanAudio.Sound winSfx = audio.load(ASSET_PATH + "win.wav");
+    private static HangmanAudio.Sound incorrectGuessSfx = audio.load(ASSET_PATH + "incorrect.wav");
+    private static HangmanAudio.Sound tickSfx = audio.load(ASSET_PATH + "tick.wav");
 
-    private static RandomGenerator rgen = RandomGenerator.getInstance();
-    private static HangmanLexiconExt lexicon = new HangmanLexiconExt();
+    private static HangmanLexiconHolder lexicons = HangmanLexiconHolder.watchDefault();
 
     private HangmanCanvasExt canvas;
-    private ScheduledExecutorService scheduler;
-    private int timeLeft;
-    private String currentWord;
-    private boolean roundRunning = false;
-    private int roundNum = 0;
+    private HangmanGameLoop gameLoop;
+    private HangmanJournal journal;
+    private HangmanScoreStore scores;
+    private String player = HangmanScoreStore.getDefaultPlayer();
+    private final HangmanRandom random = HangmanRandom.fromProperties();
+
+    // game loop thread only
+    private long eventTime;
+    private long roundStartedAt;
+    private HangmanEngine engine = new HangmanEngine(this, true, () -> eventTime);
+    private HangmanLexicon lexicon;  // the word list of the current round
+    private HangmanCandidateFilter hintFilter;
+    private HangmanShuffleBag[] bandBags;  // the words of each difficulty band not drawn yet
+    private HangmanWordIndex bandIndex;    // the index whose score ranks the bags hold
+    private HangmanRoundClock.Timer timer;
+    private boolean roundPending = false;
+    private int endedOutcome = -1;   // journal outcome of a round that just ended
+    private int endedRoundNum;
+
+    // UI updates waiting for the next frame on the event dispatch thread
+    private final HangmanEventQueue<Runnable> uiUpdates = new HangmanEventQueue<>();
+    private final AtomicBoolean uiFrameScheduled = new AtomicBoolean();
+    private javax.swing.Timer uiFrame;
 
     public void init() {
         canvas = new HangmanCanvasExt();
         add(canvas);
+
+        uiFrame = new javax.swing.Timer(HangmanCanvasExt.getFrameMillis(), e -> runUiUpdates());
+        uiFrame.setRepeats(false);
+        gameLoop = new HangmanGameLoop("hangman-game-loop");
+        journal = HangmanJournal.fromProperties();
+        scores = HangmanScoreStore.fromProperties();
+        HangmanMetrics.exportFromProperties();
     }
 
     public void run() {
         println("Welcome to Hangman!");
+        println("Type " + HINT_CHAR + " for a hint.");
+        showScores();
+        println("Words are drawn with seed " + random.getSeed() + " (-Dhangman.seed to replay them).");
+        post(this::beginRound);
+
+        // the console thread only reads; every line is handled by the game loop
         while (true) {
-            canvas.reset();
-            beginRound();
-            println();
+            String line = readLine();
+            if (line != null) {
+                post(() -> handleInput(line));
+            }
+        }
+    }
+
+    // the player's record and the top streaks from earlier games
+    private void showScores() {
+        if (scores == null) return;
+
+        HangmanScoreStore.PlayerScores mine = scores.getPlayer(player);
+        if (mine != null) {
+            println("Welcome back, " + player + ": best streak " + mine.bestStreak + ", "
+                    + mine.wins + " won, " + mine.losses + " lost.");
+        }
 
-            pause(TIME_BETWEEN_ROUNDS);
+        List<HangmanScoreStore.Entry> top = scores.getTopStreaks(LEADERBOARD_SIZE);
+        if (!top.isEmpty()) {
+            println("Best streaks:");
+            for (int i = 0; i < top.size(); i++) {
+                println("  " + (i + 1) + ". " + top.get(i).player + " (" + top.get(i).value + ")");
+            }
         }
     }
 
+    // queues an action for the game loop, which runs it at one fixed engine time
+    private void post(Runnable action) {
+        gameLoop.post(() -> {
+            eventTime = System.nanoTime();
+            action.run();
+        });
+    }
+
     // runs one round of the game
     private void beginRound() {
-        // set initial values before the round
-        roundRunning = true;
-        roundNum++;
-        timeLeft = ROUND_TIME - roundNum;  // decrease time as player passes rounds
-        int attemptCount = GUESS_COUNT;
-
-        int idx = rgen.nextInt(0, lexicon.getWordCount() - 1);
-        currentWord = lexicon.getWord(idx);
-        String guessedWord = getGuessedWord(currentWord.length());
+        roundPending = false;
+        ui(() -> {
+            canvas.reset();
+            println();
+        });
+        useLatestLexicon();
 
-        // for testing
-        System.out.println(currentWord);
+        // harder words as player passes rounds, none repeated before its band runs out
+        int band = Math.min(engine.getRoundNum(), DIFFICULTY_BANDS - 1);
+        int idx = bandIndex.getWordByScoreRank(bandBags[band].next(random));
+        engine.startRound(lexicon.getWord(idx));
+        roundStartedAt = eventTime;
+        journal.roundStarted(eventTime, engine.getRoundNum(), idx, engine.getRoundTime(), engine.getCurrentWord());
 
         initTimer();
-        canvas.displayWord(guessedWord);
-        canvas.drawRoundCount(roundNum);
-        runAttempts(attemptCount, guessedWord);
-    }
-
-    // continuously accepts letter input from user and checks if it's correct (and also valid)
-    private void runAttempts(int attemptCount, String guessedWord) {
-        while (roundRunning && attemptCount > 0 && !guessedWord.equals(currentWord)) {
-            println("The word now looks like this: " + guessedWord);
-            println("You have " + attemptCount + " guesses left.");
-            char letter = Character.toUpperCase(readChar("Your guess: "));
-
-            if (isCorrectGuess(letter)) {
-                if (guessedWord.contains("" + letter)) continue; // in case the letter is repeated
-
-                guessedWord = updateGuessWord(guessedWord, letter);
-                handleCorrectGuess(guessedWord);
-            } else {
-                attemptCount--;
-                handleIncorrectGuess(letter, attemptCount);
+        prompt();
+    }
+
+    /*
+     * Picks up a reloaded word list, or the index rebuilt once the solver
+     * scores are ready; a round always plays out with the list it started
+     * with.  The bags hold score ranks, which only mean something in the
+     * index they were made from, so a new index gets new bags.
+     */
+    private void useLatestLexicon() {
+        HangmanLexicon latest = lexicons.get();
+        if (latest != lexicon) {
+            if (lexicon != null) {
+                int count = latest.getWordCount();
+                ui(() -> println("The word list has changed, it now has " + count + " words."));
             }
+            lexicon = latest;
+            hintFilter = new HangmanCandidateFilter(lexicon.getCandidateIndex());
         }
-        checkGameState(guessedWord);
-    }
 
-    // starts the timer on a seperate thread to limit the player in time
-    private void initTimer() {
-        scheduler = Executors.newScheduledThreadPool(1);
-        scheduler.scheduleAtFixedRate(() -> timerTask(), 0, 1, TimeUnit.SECONDS);
-    }
+        HangmanWordIndex index = lexicon.getIndex();
+        if (index == bandIndex) return;
 
-    // task which is to be run in set intervals
-    private void timerTask() {
-        timeLeft--;
-        tickSfx.play();
-        canvas.updateTimer(timeLeft, ROUND_TIME - roundNum);
-        if (timeLeft <= 0) {
-            roundRunning = false;
-            scheduler.shutdown();
-            handleGameLoss();
-            println("Press enter to play again!!!");
+        bandIndex = index;
+        bandBags = new HangmanShuffleBag[DIFFICULTY_BANDS];
+        for (int band = 0; band < DIFFICULTY_BANDS; band++) {
+            bandBags[band] = new HangmanShuffleBag(index.getDifficultyBandStart(band, DIFFICULTY_BANDS),
+                    index.getDifficultyBandEnd(band, DIFFICULTY_BANDS));
         }
     }
 
-    private void handleCorrectGuess(String guess) {
-        canvas.displayWord(guess);
-        timeLeft++;  // +1 sec for every correct guess
-        println("That guess is correct.");
+    // starts the next round after a short pause
+    private void scheduleRound() {
+        if (roundPending) return;
+
+        roundPending = true;
+        HangmanRoundClock.runLater(() -> post(this::beginRound), TIME_BETWEEN_ROUNDS);
     }
 
-    // in case the guessed letter was not in the word
-    private void handleIncorrectGuess(char letter, int attemptCount) {
-        if (!roundRunning) {
+    // applies one typed line: a guess, a hint request, or enter to play again
+    private void handleInput(String line) {
+        if (!engine.isRoundRunning()) {
+            // if user wants to start another round
+            scheduleRound();
             return;
         }
 
-        incorrectGuessSfx.play();
-        int wrongGuessNum = GUESS_COUNT - attemptCount;
-        canvas.noteIncorrectGuess(letter, wrongGuessNum);
+        if (line.length() != 1) {
+            ui(() -> print("Your guess: "));
+            return;
+        }
 
-        println("There are no " + letter + "'s in the word.");
+        char ch = line.charAt(0);
+        if (ch == HINT_CHAR) {
+            showHint();
+        } else if (isInvalidCharInput(ch)) {
+            ui(() -> print("Error: invalid input, enter a single letter\nYour guess: "));
+            return;
+        } else {
+            char letter = Character.toUpperCase(ch);
+            journal.guess(eventTime, letter, engine.guess(letter));
+            journalRoundEnd();
+        }
+
+        if (engine.isRoundRunning()) {
+            prompt();
+        }
+    }
+
+    private void prompt() {
+        String word = engine.getGuessedWord();
+        int attempts = engine.getAttemptCount();
+        ui(() -> {
+            println("The word now looks like this: " + word);
+            println("You have " + attempts + " guesses left.");
+            print("Your guess: ");
+        });
     }
 
-    // replaces "-" character with the correctly guessed letter
-    private String updateGuessWord(String guessedWord, char letter) {
-        StringBuilder updatedWord = new StringBuilder(guessedWord);
+    // tells the player how many words still fit and which letter is the most likely
+    private void showHint() {
+        char letter = hintFilter.bestLetter(engine.getRound().getGuessedMask());
+        int count = hintFilter.countCandidates();
 
-        int charPos = currentWord.indexOf(letter);
-        while (charPos != -1) {
-            updatedWord.setCharAt(charPos, letter);
-            charPos = currentWord.indexOf(letter, charPos + 1);
+        if (letter == 0) {
+            ui(() -> println("No hint this time."));
+        } else {
+            int withLetter = hintFilter.countLetter(letter);
+            ui(() -> println("Hint: " + count + " words still fit, " + withLetter
+                    + " of them contain the letter " + letter + "."));
         }
+    }
 
-        return updatedWord.toString();
+    // starts the timer on the shared clock thread; its ticks are run by the game loop
+    private void initTimer() {
+        stopTimer();
+        timer = HangmanRoundClock.start(() -> post(this::tick));
     }
 
-    // checks if the current word contains the guessed character
-    private boolean isCorrectGuess(char letter) {
-        return currentWord.contains("" + letter) ? true : false;
+    private void tick() {
+        engine.tick();
+        journalRoundEnd();
     }
 
-    // general method for accepting character input
-    private char readChar(String prompt) {
-        String ch;
-        while (true) {
-            ch = readLine(prompt);
-            if (!roundRunning && ch.equals("")) {   // if user wants to start another round
-                return '0';
-            }
+    // the end of a round is journaled after the guess or tick that ended it
+    private void journalRoundEnd() {
+        if (endedOutcome < 0) return;
 
-            if (ch == null || ch.length() != 1) continue;
+        journal.roundEnded(eventTime, endedOutcome, endedRoundNum);
+        endedOutcome = -1;
+    }
 
-            if (isInvalidCharInput(ch.charAt(0))) {
-                println("Error: invalid input, enter a single letter");
-                ch = null;
-            } else break; // if the input is valid break out of the loop
+    private void stopTimer() {
+        if (timer != null) {
+            timer.cancel();
+            timer = null;
         }
-
-        return ch.charAt(0);
     }
 
-    // handle the game's ending, display results
-    private void checkGameState(String guessedWord) {
-        if (!roundRunning) {  // in case player lost from the timer
-            return;
+    /*
+     * Queues a UI update from the game loop.  The first update of a
+     * frame starts the frame timer; the rest just wait for it.
+     */
+    private void ui(Runnable update) {
+        uiUpdates.offer(update);
+        if (uiFrameScheduled.compareAndSet(false, true)) {
+            uiFrame.restart();
         }
+    }
 
-        roundRunning = false;
-        if (guessedWord.equals(currentWord)) {
-            handleGameWin();
-        } else {
-            handleGameLoss();
+    // runs on the event dispatch thread once per frame
+    private void runUiUpdates() {
+        uiFrameScheduled.set(false);
+
+        Runnable update;
+        while ((update = uiUpdates.poll()) != null) {
+            update.run();
         }
+    }
+
+    public void roundStarted(HangmanEngine engine) {
+        if (DEBUG) System.out.println("secret word: " + engine.getCurrentWord());
+        hintFilter.reset(engine.getRound());
+
+        String word = engine.getGuessedWord();
+        int roundNum = engine.getRoundNum();
+        ui(() -> {
+            canvas.displayWord(word);
+            canvas.drawRoundCount(roundNum);
+        });
+    }
 
-        scheduler.shutdown();
+    // task which is to be run in set intervals
+    public void timerTicked(HangmanEngine engine, int timeLeft, int roundTime) {
+        journal.tick(eventTime, timeLeft);
+        audio.play(tickSfx);
+        ui(() -> canvas.updateTimer(timeLeft, roundTime));
     }
 
-    private void handleGameLoss() {
-        deathSfx.play();
-        roundNum = 0;
-        println("The word was: " + currentWord);
-        println("You lose.");
+    public void correctGuess(HangmanEngine engine, char letter) {
+        hintFilter.applyGuess(letter, engine.getRound().getPositions(letter));
+
+        String word = engine.getGuessedWord();
+        ui(() -> {
+            canvas.displayWord(word);
+            println("That guess is correct.");
+        });
     }
 
-    private void handleGameWin() {
-        winSfx.play();
-        println("You guessed the word: " + currentWord);
-        println("You win.");
+    // in case the guessed letter was not in the word
+    public void incorrectGuess(HangmanEngine engine, char letter, int wrongGuessNum) {
+        hintFilter.applyGuess(letter, 0);
+        audio.play(incorrectGuessSfx);
+
+        ui(() -> {
+            canvas.noteIncorrectGuess(letter, wrongGuessNum);
+            println("There are no " + letter + "'s in the word.");
+        });
     }
 
-    // fill the string with "-" characters
-    private String getGuessedWord(int length) {
-        String guessedWord = "";
-        for (int i = 0; i < length; i++) {
-            guessedWord += "-";
+    // handle the game's ending, display results
+    public void roundLost(HangmanEngine engine, boolean timedOut) {
+        stopTimer();
+        endedOutcome = timedOut ? HangmanJournal.TIMED_OUT : HangmanJournal.LOST;
+        endedRoundNum = engine.getRoundNum();
+        if (scores != null) scores.recordLoss(player);
+
+        audio.play(deathSfx);
+        String word = engine.getCurrentWord();
+        ui(() -> {
+            println("The word was: " + word);
+            println("You lose.");
+            if (timedOut) {
+                println("Press enter to play again!!!");
+            }
+        });
+
+        // a timed out player may be away; wait for enter before the next round
+        if (!timedOut) {
+            scheduleRound();
         }
+    }
+
+    public void roundWon(HangmanEngine engine) {
+        stopTimer();
+        endedOutcome = HangmanJournal.WON;
+        endedRoundNum = engine.getRoundNum();
+        if (scores != null) {
+            scores.recordWin(player, engine.getCurrentWord().length(), (eventTime - roundStartedAt) / 1000000);
+        }
+
+        audio.play(winSfx);
+        String word = engine.getCurrentWord();
+        ui(() -> {
+            println("You guessed the word: " + word);
+            println("You win.");
+        });
 
-        return guessedWord;
+        scheduleRound();
     }
 
     // checks if the character is a letter
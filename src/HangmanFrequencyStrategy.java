@@ -0,0 +1,50 @@
+/*
+ * File: HangmanFrequencyStrategy.java
+ * -----------------------------------
+ * This file contains a strategy that guesses the letter contained in
+ * the most words that are still consistent with the round so far:
+ * same length, same revealed letters in the same places, and none of
+ * the letters that were guessed wrong.  The candidates are tracked by
+ * a HangmanCandidateFilter.
+ */
+
+public class HangmanFrequencyStrategy implements HangmanStrategy {
+    // used when the word is not in the lexicon and no candidate is left
+    private static final String FALLBACK_ORDER = "ESIARNTOLCDUGPMKHBYFVWZXQJ";
+
+    private final HangmanCandidateFilter filter;
+    private int filteredMask;  // guessed letters the filter has already seen
+
+    public HangmanFrequencyStrategy(HangmanCandidateIndex index) {
+        filter = new HangmanCandidateFilter(index);
+    }
+
+    public void roundStarted(HangmanRound round) {
+        filter.reset(round);
+        filteredMask = round.getGuessedMask();
+    }
+
+    public char nextGuess(HangmanRound round) {
+        int guessed = round.getGuessedMask();
+
+        int newLetters = guessed & ~filteredMask;
+        while (newLetters != 0) {
+            char letter = (char) ('A' + Integer.numberOfTrailingZeros(newLetters));
+            filter.applyGuess(letter, round.getPositions(letter));
+            newLetters &= newLetters - 1;
+        }
+        filteredMask = guessed;
+
+        char best = filter.bestLetter(guessed);
+        return best != 0 ? best : fallbackGuess(guessed);
+    }
+
+    private char fallbackGuess(int guessed) {
+        for (int i = 0; i < FALLBACK_ORDER.length(); i++) {
+            char letter = FALLBACK_ORDER.charAt(i);
+            if ((guessed & HangmanWordIndex.letterBit(letter)) == 0) return letter;
+        }
+
+        return 'A';
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * File: HangmanGameLoop.java
+ * --------------------------
+ * This file runs the game on a single thread.  Input, the round clock
+ * and delayed actions all post events to one lock-free queue, and the
+ * loop thread applies them in order, so the game state has exactly one
+ * writer and needs no locks.
+ *
+ * For every event the loop records how long it waited in the queue, so
+ * the latency between a key press (or a tick) and its effect can be
+ * read while the game runs (also as the hangman_event_wait_seconds
+ * histogram).
+ */
+
+public class HangmanGameLoop {
+    private static final HangmanMetrics.Histogram EVENT_WAIT =
+            HangmanMetrics.histogram("hangman_event_wait_seconds", "", "Time an event waited for the game loop",
+                    HangmanMetrics.NANOS, HangmanMetrics.exponentialBounds(1000, 2, 24));
+
+    private final HangmanEventQueue<Event> queue = new HangmanEventQueue<>();
+    private final Thread thread;
+
+    // written by the loop thread only
+    private volatile long eventCount;
+    private volatile long totalLatencyNanos;
+    private volatile long maxLatencyNanos;
+
+/** Starts the loop on a new daemon thread with the given name. */
+    public HangmanGameLoop(String name) {
+        thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+/** Queues an action for the loop thread; safe from any thread, never blocks. */
+    public void post(Runnable action) {
+        queue.offer(new Event(action, System.nanoTime()));
+    }
+
+/** Returns the number of events run so far. */
+    public long getEventCount() {
+        return eventCount;
+    }
+
+/** Returns the mean time an event waited before it ran, in nanoseconds. */
+    public long getMeanLatencyNanos() {
+        long count = eventCount;
+        return count == 0 ? 0 : totalLatencyNanos / count;
+    }
+
+/** Returns the longest time an event waited before it ran, in nanoseconds. */
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos;
+    }
+
+    private void run() {
+        while (true) {
+            Event event;
+            try {
+                event = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            long latency = System.nanoTime() - event.postedAt;
+            EVENT_WAIT.record(latency);
+            totalLatencyNanos += latency;
+            if (latency > maxLatencyNanos) maxLatencyNanos = latency;
+            eventCount++;
+
+            // one bad event must not stop the game
+            try {
+                event.action.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static class Event {
+        final Runnable action;
+        final long postedAt;
+
+        Event(Runnable action, long postedAt) {
+            this.action = action;
+            this.postedAt = postedAt;
+        }
+    }
+}
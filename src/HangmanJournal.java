@@ -0,0 +1,357 @@
+/*
+ * File: HangmanJournal.java
+ * -------------------------
+ * This file records games into an append-only binary log: the start
+ * of every round (its number, the word and its lexicon index), every
+ * guess and clock tick with a nanosecond time, and how the round ended.
+ * HangmanJournalReplay plays such a log back through the engine.
+ *
+ * Records are appended to an in-memory buffer and a flusher thread
+ * writes them to the file, forcing it to disk once per batch: whatever
+ * was appended while the last batch was being forced goes out with the
+ * next one (group commit), so the game never waits for the disk.
+ *
+ * File layout (big-endian):
+ *   header    "HJRN", version (int), creation time in epoch millis (long)
+ *   record    payload length (byte), type (byte), payload,
+ *             CRC32 of the three before (int)
+ *
+ * Every run of the game appends a SESSION record, after which times
+ * count in nanoseconds from that session's start.  A record cut short
+ * by a crash fails its length or checksum; readers stop there, and
+ * reopening the journal cuts it off before appending.
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+public class HangmanJournal implements Closeable {
+    public static final byte SESSION = 1;
+    public static final byte ROUND_START = 2;
+    public static final byte GUESS = 3;
+    public static final byte TICK = 4;
+    public static final byte ROUND_END = 5;
+
+/** Round outcomes in ROUND_END records. */
+    public static final int WON = 0;
+    public static final int LOST = 1;
+    public static final int TIMED_OUT = 2;
+
+    private static final int MAGIC = 0x484A524E;  // "HJRN"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_OVERHEAD = 6;  // length, type, checksum
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final long sessionStart = System.nanoTime();
+    private final CRC32 crc = new CRC32();
+
+    // guarded by this
+    private ByteBuffer pending = ByteBuffer.allocate(BUFFER_SIZE);
+    private ByteBuffer writing = ByteBuffer.allocate(BUFFER_SIZE);
+    private int recordStart;
+    private long appended;   // records
+    private long durable;    // records forced to disk
+    private boolean closed;
+    private IOException failure;
+
+    private HangmanJournal(FileChannel channel) {
+        this.channel = channel;
+    }
+
+/** Returns a journal that records nothing. */
+    public static HangmanJournal disabled() {
+        return new HangmanJournal(null);
+    }
+
+/** Opens the journal named by the hangman.journal system property (closed at exit), or a disabled one. */
+    public static HangmanJournal fromProperties() {
+        String path = System.getProperty("hangman.journal");
+        if (path == null) return disabled();
+
+        try {
+            HangmanJournal journal = open(Paths.get(path));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    // nothing left to do at exit
+                }
+            }));
+            return journal;
+        } catch (IOException e) {
+            System.err.println("cannot open journal " + path + ": " + e.getMessage());
+            return disabled();
+        }
+    }
+
+/** Opens (or creates) a journal for appending and starts a new session in it. */
+    public static HangmanJournal open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            long end;
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION).putLong(System.currentTimeMillis()).flip();
+                while (header.hasRemaining()) channel.write(header);
+                end = HEADER_SIZE;
+            } else {
+                end = read(channel, new Visitor() {}, new long[1]);  // drops a torn last record
+            }
+            channel.truncate(end);
+            channel.position(end);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        HangmanJournal journal = new HangmanJournal(channel);
+        Thread flusher = new Thread(journal::flushLoop, "hangman-journal");
+        flusher.setDaemon(true);
+        flusher.start();
+
+        journal.session(System.currentTimeMillis());
+        return journal;
+    }
+
+/** Returns true if records are actually written. */
+    public boolean isEnabled() {
+        return channel != null;
+    }
+
+    private synchronized void session(long epochMillis) {
+        begin(SESSION, 8).putLong(epochMillis);
+        end();
+    }
+
+/** Records the start of a round; the word is stored too, so a replay doesn't depend on the lexicon. */
+    public synchronized void roundStarted(long nanoTime, int roundNum, int wordIndex, int roundTime, String word) {
+        if (channel == null) return;
+
+        int length = Math.min(word.length(), 255 - 21);
+        ByteBuffer out = begin(ROUND_START, 21 + length);
+        out.putLong(nanoTime - sessionStart).putInt(roundNum).putInt(wordIndex).putInt(roundTime).put((byte) length);
+        for (int i = 0; i < length; i++) out.put((byte) word.charAt(i));
+        end();
+    }
+
+/** Records a guess with its HangmanRound (or HangmanEngine.ROUND_OVER) result. */
+    public synchronized void guess(long nanoTime, char letter, int result) {
+        if (channel == null) return;
+
+        begin(GUESS, 10).putLong(nanoTime - sessionStart).put((byte) letter).put((byte) result);
+        end();
+    }
+
+    public synchronized void tick(long nanoTime, int timeLeft) {
+        if (channel == null) return;
+
+        begin(TICK, 12).putLong(nanoTime - sessionStart).putInt(timeLeft);
+        end();
+    }
+
+/** Records the end of a round: WON, LOST or TIMED_OUT. */
+    public synchronized void roundEnded(long nanoTime, int outcome, int roundNum) {
+        if (channel == null) return;
+
+        begin(ROUND_END, 13).putLong(nanoTime - sessionStart).put((byte) outcome).putInt(roundNum);
+        end();
+    }
+
+    // reserves room for a record; the pending buffer grows rather than making the game wait
+    private ByteBuffer begin(byte type, int payloadLength) {
+        int size = payloadLength + RECORD_OVERHEAD;
+        if (pending.remaining() < size) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + size));
+            pending.flip();
+            bigger.put(pending);
+            pending = bigger;
+        }
+
+        recordStart = pending.position();
+        return pending.put((byte) payloadLength).put(type);
+    }
+
+    // checksums the record and hands it to the flusher
+    private void end() {
+        crc.reset();
+        crc.update(pending.array(), recordStart, pending.position() - recordStart);
+        pending.putInt((int) crc.getValue());
+
+        appended++;
+        notifyAll();
+    }
+
+/** Waits until every record appended so far is on disk. */
+    public synchronized void sync() throws IOException {
+        if (channel == null) return;
+
+        long target = appended;
+        boolean interrupted = false;
+        while (durable < target && failure == null) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        if (failure != null) throw failure;
+    }
+
+/** Writes out what is pending and closes the file. */
+    public void close() throws IOException {
+        if (channel == null) return;
+
+        sync();
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        channel.close();
+    }
+
+    /*
+     * The flusher swaps the two buffers, so the game keeps appending to
+     * one while the other is written and forced.
+     */
+    private void flushLoop() {
+        while (true) {
+            long batchEnd;
+            synchronized (this) {
+                while (pending.position() == 0 && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (closed) return;
+
+                ByteBuffer full = pending;
+                pending = writing;
+                writing = full;
+                batchEnd = appended;
+            }
+
+            try {
+                writing.flip();
+                while (writing.hasRemaining()) channel.write(writing);
+                channel.force(false);
+            } catch (IOException e) {
+                synchronized (this) {
+                    failure = e;
+                    notifyAll();
+                }
+                System.err.println("journal write failed, no more records are kept: " + e.getMessage());
+                return;
+            } finally {
+                writing.clear();
+            }
+
+            synchronized (this) {
+                durable = batchEnd;
+                notifyAll();
+            }
+        }
+    }
+
+/** Receives the records of a journal in order; times are nanoseconds since the session started. */
+    public interface Visitor {
+        default void session(long epochMillis) {
+        }
+
+        default void roundStarted(long time, int roundNum, int wordIndex, int roundTime, String word) {
+        }
+
+        default void guess(long time, char letter, int result) {
+        }
+
+        default void tick(long time, int timeLeft) {
+        }
+
+        default void roundEnded(long time, int outcome, int roundNum) {
+        }
+    }
+
+/** Reads a whole journal and returns the number of valid records; stops at a torn record. */
+    public static long read(Path path, Visitor visitor) throws IOException {
+        long[] count = { 0 };
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            read(channel, visitor, count);
+        }
+
+        return count[0];
+    }
+
+    // returns the file offset just past the last valid record
+    private static long read(FileChannel channel, Visitor visitor, long[] count) throws IOException {
+        if (channel.size() > Integer.MAX_VALUE) {
+            throw new IOException("journal is too large");
+        }
+        ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        if (in.remaining() < HEADER_SIZE || in.getInt() != MAGIC) {
+            throw new IOException("not a hangman journal");
+        }
+        if (in.getInt() != VERSION) {
+            throw new IOException("unsupported journal version");
+        }
+        in.getLong();
+
+        CRC32 crc = new CRC32();
+        byte[] word = new byte[255];
+        while (in.remaining() >= RECORD_OVERHEAD) {
+            int start = in.position();
+            int length = in.get(start) & 0xFF;
+            if (in.remaining() < length + RECORD_OVERHEAD) break;
+
+            crc.reset();
+            ByteBuffer record = in.duplicate();
+            record.limit(start + 2 + length);
+            crc.update(record);
+            if ((int) crc.getValue() != in.getInt(start + 2 + length)) break;
+
+            in.position(start + 1);
+            byte type = in.get();
+            switch (type) {
+            case SESSION:
+                visitor.session(in.getLong());
+                break;
+            case ROUND_START:
+                long time = in.getLong();
+                int roundNum = in.getInt();
+                int wordIndex = in.getInt();
+                int roundTime = in.getInt();
+                int wordLength = in.get() & 0xFF;
+                in.get(word, 0, wordLength);
+                visitor.roundStarted(time, roundNum, wordIndex, roundTime,
+                        new String(word, 0, wordLength, StandardCharsets.US_ASCII));
+                break;
+            case GUESS:
+                visitor.guess(in.getLong(), (char) in.get(), in.get());
+                break;
+            case TICK:
+                visitor.tick(in.getLong(), in.getInt());
+                break;
+            case ROUND_END:
+                visitor.roundEnded(in.getLong(), in.get(), in.getInt());
+                break;
+            default:
+                // a newer record type: skip it
+            }
+            in.position(start + 2 + length + 4);
+            count[0]++;
+        }
+
+        return in.position();
+    }
+}
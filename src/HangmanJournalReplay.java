@@ -0,0 +1,199 @@
+/*
+ * File: HangmanJournalReplay.java
+ * -------------------------------
+ * This file plays a game journal back through HangmanEngine.  The
+ * engine's clock is driven by the recorded times, so guesses, bonus
+ * seconds, ticks and timeouts happen exactly as they did, and every
+ * recorded outcome, tick and guess result is checked against what the
+ * engine does now.  A difference means the rules (or the journal) have
+ * changed.
+ *
+ * By default the replay runs as fast as it can and reports events per
+ * second.  Options:
+ *   -realtime   wait out the recorded gaps between events
+ *   -canvas     also drive an offscreen HangmanCanvasExt and paint
+ *               every event, reporting the mean paint time
+ *
+ * Usage: java -cp acm.jar:out/production/assignment4 HangmanJournalReplay <journal> [options]
+ */
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+public class HangmanJournalReplay implements HangmanJournal.Visitor, HangmanListener {
+    private static final int CANVAS_SIZE = 800;
+
+    private final boolean realtime;
+    private final HangmanCanvasExt canvas;
+    private final Graphics2D graphics;
+
+    private HangmanEngine engine;
+    private long now;           // journal time of the event being replayed
+    private long wallStart;     // System.nanoTime() at the start of the session, for realtime
+    private int lastTimeLeft;
+    private int lastOutcome = -1;
+
+    private long events;
+    private long rounds;
+    private long mismatches;
+    private long paintNanos;
+    private long paints;
+
+    public HangmanJournalReplay(boolean realtime, boolean drawCanvas) {
+        this.realtime = realtime;
+        if (drawCanvas) {
+            canvas = new HangmanCanvasExt();
+            canvas.setSize(CANVAS_SIZE, CANVAS_SIZE);
+            canvas.reset();
+            graphics = new BufferedImage(CANVAS_SIZE, CANVAS_SIZE, BufferedImage.TYPE_INT_RGB).createGraphics();
+        } else {
+            canvas = null;
+            graphics = null;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("usage: HangmanJournalReplay <journal> [-realtime] [-canvas]");
+            System.exit(2);
+        }
+
+        boolean realtime = false;
+        boolean drawCanvas = false;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("-realtime")) realtime = true;
+            else if (args[i].equals("-canvas")) drawCanvas = true;
+            else throw new IllegalArgumentException("unknown option " + args[i]);
+        }
+        if (drawCanvas) System.setProperty("java.awt.headless", "true");
+
+        HangmanJournalReplay replay = new HangmanJournalReplay(realtime, drawCanvas);
+        long start = System.nanoTime();
+        long records = HangmanJournal.read(Paths.get(args[0]), replay);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d records, %d rounds replayed in %.3f s (%.0f events/s)%n",
+                records, replay.rounds, seconds, replay.events / seconds);
+        if (replay.paints > 0) {
+            System.out.printf("mean paint %.1f us over %d paints%n", replay.paintNanos / 1e3 / replay.paints, replay.paints);
+        }
+        System.out.println(replay.mismatches == 0 ? "journal matches the engine" : replay.mismatches + " mismatch(es)");
+        System.exit(replay.mismatches == 0 ? 0 : 1);
+    }
+
+    /*
+     *  ~~ JOURNAL RECORDS ~~
+     */
+    public void session(long epochMillis) {
+        // a new run of the game: its engine started from round zero
+        engine = new HangmanEngine(this, true, () -> now);
+        wallStart = System.nanoTime();
+    }
+
+    public void roundStarted(long time, int roundNum, int wordIndex, int roundTime, String word) {
+        advance(time);
+        if (canvas != null) canvas.reset();
+        engine.startRound(word);
+        rounds++;
+
+        check(engine.getRoundNum() == roundNum, "round number " + engine.getRoundNum() + ", recorded " + roundNum);
+        check(engine.getRoundTime() == roundTime, "round time " + engine.getRoundTime() + ", recorded " + roundTime);
+    }
+
+    public void guess(long time, char letter, int result) {
+        advance(time);
+        int replayed = engine.guess(letter);
+        check(replayed == result, "guess " + letter + " gave " + replayed + ", recorded " + result);
+    }
+
+    public void tick(long time, int timeLeft) {
+        advance(time);
+        lastTimeLeft = -1;
+        engine.tick();
+        check(lastTimeLeft == timeLeft, "tick showed " + lastTimeLeft + " s, recorded " + timeLeft);
+    }
+
+    public void roundEnded(long time, int outcome, int roundNum) {
+        advance(time);
+        check(lastOutcome == outcome, "round ended with " + lastOutcome + ", recorded " + outcome);
+        lastOutcome = -1;
+    }
+
+    private void advance(long time) {
+        now = time;
+        events++;
+        if (engine == null) {
+            session(0);  // a journal without a session record
+        }
+
+        if (realtime) {
+            long wait = time - (System.nanoTime() - wallStart);
+            if (wait > 0) {
+                try {
+                    Thread.sleep(wait / 1000000, (int) (wait % 1000000));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private void check(boolean ok, String message) {
+        if (!ok) {
+            mismatches++;
+            System.out.println("mismatch at " + now / 1000000 + " ms: " + message);
+        }
+    }
+
+    private void paint() {
+        if (canvas == null) return;
+
+        long start = System.nanoTime();
+        canvas.paint(graphics);
+        paintNanos += System.nanoTime() - start;
+        paints++;
+    }
+
+    /*
+     *  ~~ ENGINE EVENTS ~~
+     */
+    public void roundStarted(HangmanEngine engine) {
+        if (canvas == null) return;
+
+        canvas.displayWord(engine.getGuessedWord());
+        canvas.drawRoundCount(engine.getRoundNum());
+        paint();
+    }
+
+    public void correctGuess(HangmanEngine engine, char letter) {
+        if (canvas == null) return;
+
+        canvas.displayWord(engine.getGuessedWord());
+        paint();
+    }
+
+    public void incorrectGuess(HangmanEngine engine, char letter, int wrongGuessNum) {
+        if (canvas == null) return;
+
+        canvas.noteIncorrectGuess(letter, wrongGuessNum);
+        paint();
+    }
+
+    public void timerTicked(HangmanEngine engine, int timeLeft, int roundTime) {
+        lastTimeLeft = timeLeft;
+        if (canvas == null) return;
+
+        canvas.updateTimer(timeLeft, roundTime);
+        paint();
+    }
+
+    public void roundWon(HangmanEngine engine) {
+        lastOutcome = HangmanJournal.WON;
+    }
+
+    public void roundLost(HangmanEngine engine, boolean timedOut) {
+        lastOutcome = timedOut ? HangmanJournal.TIMED_OUT : HangmanJournal.LOST;
+    }
+}
@@ -1,64 +1,216 @@
 /*
  * File: HangmanLexicon.java
  * -------------------------
- * This file contains a stub implementation of the HangmanLexicon
- * class that you will reimplement for Part III of the assignment.
+ * This file contains the lexicon shared by every Hangman program and
+ * session in the JVM.  A lexicon is immutable once loaded, so one
+ * instance can be used from any number of threads; its indexes are
+ * built the first time they are asked for.
+ *
+ * Use getDefault() for the game's word list or forPath() for another
+ * file; both hand out the same instance every time, so the words are
+ * read and held only once no matter how many games are running.  When
+ * HangmanLexiconHolder reloads a changed file, the new lexicon takes
+ * the old one's place here, so later calls return the new words.
+ *
+ * The difficulty bands of a lexicon read from a file follow the
+ * HangmanDifficulty scores kept next to it.  If that file is missing
+ * words, the index starts out with the quick built-in scores and the
+ * missing words are scored on a background thread; the index is then
+ * rebuilt with the solver scores and swapped in, so no game thread
+ * waits for the solver.
  */
 
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
-import acm.util.*;
+public class HangmanLexicon {
+    static final String LEXICON_PATH = "./ShorterLexicon.txt";
 
-import java.applet.AudioClip;
-import java.awt.*;
+    private static final ConcurrentHashMap<String, HangmanLexicon> BY_PATH = new ConcurrentHashMap<>();
+    private static final HangmanMetrics.Histogram LOAD_TIME =
+            HangmanMetrics.histogram("hangman_lexicon_load_seconds", "", "Time to load a lexicon",
+                    HangmanMetrics.NANOS, HangmanMetrics.exponentialBounds(1000000, 2, 14));
 
-public class HangmanLexicon {
-    ArrayList wordList;
+    // scores lexicons whose score file is missing words, one at a time
+    private static final ExecutorService SCORING = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "hangman-difficulty");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    final HangmanWordStore wordStore;
+    private final String name;
+    private volatile HangmanWordIndex wordIndex;
+    private volatile HangmanCandidateIndex candidateIndex;
 
     // lexicon class constructor
     public HangmanLexicon() {
-        this.wordList = readFile("./ShorterLexicon.txt");
+        this(LEXICON_PATH);
+    }
+
+    // loads the lexicon from the given word file (or its precompiled image)
+    public HangmanLexicon(String path) {
+        this(HangmanLexiconSource.file(path));
+    }
+
+    // loads the lexicon from any source
+    public HangmanLexicon(HangmanLexiconSource source) {
+        this.name = source.getName();
+        this.wordStore = readSource(source);
+    }
+
+    // wraps words that are already loaded
+    private HangmanLexicon(String name, HangmanWordStore wordStore) {
+        this.name = name;
+        this.wordStore = wordStore;
+    }
+
+/** Returns the shared lexicon the game uses. */
+    public static HangmanLexicon getDefault() {
+        return forPath(LEXICON_PATH);
+    }
+
+/** Returns the shared lexicon for a word file, loading it on first use. */
+    public static HangmanLexicon forPath(String path) {
+        return BY_PATH.computeIfAbsent(path, HangmanLexicon::new);
+    }
+
+/**
+ * Returns the shared lexicon for a word file like forPath(), but if a
+ * large text file has to be parsed first it doesn't wait for all of it:
+ * the words of the first chunk to be parsed are returned (and shared)
+ * right away, and the whole list takes their place once it is ready.
+ * Call it again, as HangmanLexiconHolder.get() does every round, to
+ * move on to the whole list.
+ */
+    public static HangmanLexicon forPathEarly(String path) {
+        HangmanLexicon lexicon = BY_PATH.get(path);
+        if (lexicon != null) return lexicon;
+        if (!new File(path).isFile() || HangmanWordStore.hasCurrentImage(path)) return forPath(path);
+
+        long start = System.nanoTime();
+        HangmanLexiconLoader.Loading loading;
+        HangmanWordStore first;
+        try {
+            loading = HangmanLexiconLoader.start(path);
+            first = loading.getFirstChunk();
+        } catch (IOException e) {
+            return forPath(path);
+        }
+        if (loading.getChunkCount() == 1 || first.getWordCount() == 0) return forPath(path);
+
+        // not named after the file, so its partial words are never scored into the file's scores
+        HangmanLexicon part = new HangmanLexicon(path + " (first part)", first);
+        HangmanLexicon raced = BY_PATH.putIfAbsent(path, part);
+        if (raced != null) return raced;
+
+        loading.whenLoaded(store -> {
+            LOAD_TIME.record(System.nanoTime() - start);
+            BY_PATH.replace(path, part, new HangmanLexicon(path, store));
+        });
+        return part;
+    }
+
+    // makes a reloaded lexicon the shared one for its path (see HangmanLexiconHolder)
+    static void publish(String path, HangmanLexicon lexicon) {
+        BY_PATH.put(path, lexicon);
     }
 
 /** Returns the number of words in the lexicon. */
 	public int getWordCount() {
-        return wordList.size();
+        return wordStore.getWordCount();
 	}
 
 /** Returns the word at the specified index. */
 	public String getWord(int index) {
-        return (String) wordList.get(index);
+        return wordStore.getWord(index);
 	}
 
-    // returns the array of file lines
-    private ArrayList readFile(String path) {
-        ArrayList<String> lines = new ArrayList<>();
-        BufferedReader reader = null;
+/** Returns where the words were loaded from. */
+    public String getName() {
+        return name;
+    }
 
-        try {
-            reader = new BufferedReader(new FileReader(path));
+/**
+ * Returns the length/letter/difficulty index, building it on first use.
+ * Until the solver scores are ready the index has the built-in ones,
+ * and a later call may return a newer index.
+ */
+    public HangmanWordIndex getIndex() {
+        HangmanWordIndex index = wordIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = wordIndex;
+                if (index == null) {
+                    int[] scores = cachedScores();
+                    index = new HangmanWordIndex(wordStore, scores);
+                    wordIndex = index;
+                    if (scores == null && new File(name).isFile()) SCORING.execute(this::scoreInBackground);
+                }
+            }
+        }
 
-            while (true) {
-                String line = reader.readLine();
-                lines.add(line);
+        return index;
+    }
 
-                if (line == null) {
-                    break;
+/** Returns the bitset index used to filter candidate words, building it on first use. */
+    public HangmanCandidateIndex getCandidateIndex() {
+        HangmanCandidateIndex index = candidateIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = candidateIndex;
+                if (index == null) {
+                    index = new HangmanCandidateIndex(wordStore, getIndex());
+                    candidateIndex = index;
                 }
             }
+        }
+
+        return index;
+    }
+
+    // the solver scores of a lexicon file if they are all on disk, or null for the built-in ones
+    private int[] cachedScores() {
+        if (!new File(name).isFile()) return null;
+
+        try {
+            return HangmanDifficulty.cachedScoresFor(name, wordStore);
+        } catch (IOException e) {
+            System.err.println("cannot read word scores for " + name + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // scores the words the score file is missing, then swaps in an index that uses them
+    private void scoreInBackground() {
+        int[] scores;
+        try {
+            scores = HangmanDifficulty.scoresFor(name, wordStore);
+        } catch (IOException e) {
+            System.err.println("cannot score the words of " + name + ": " + e.getMessage());
+            return;
+        }
+
+        HangmanWordIndex index = new HangmanWordIndex(wordStore, scores);
+        synchronized (this) {
+            wordIndex = index;
+        }
+    }
+
+    // loads the words, leaving the lexicon empty if the source can't be read
+    private static HangmanWordStore readSource(HangmanLexiconSource source) {
+        long start = System.nanoTime();
+        try {
+            HangmanWordStore store = source.load();
+            LOAD_TIME.record(System.nanoTime() - start);
+            return store;
         } catch (IOException e) {
             e.printStackTrace();
-        } finally {
-            try {
-                reader.close();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
         }
 
-        return lines;
+        return new HangmanWordStore(new byte[0], new int[1], 0);
     }
 }
@@ -0,0 +1,124 @@
+/*
+ * File: HangmanLexiconBenchmark.java
+ * ----------------------------------
+ * This file compares the load time and heap cost of the packed word
+ * store, as built by the parallel loader, against the old ArrayList of
+ * Strings way of reading the lexicon, and measures how soon the loader's
+ * first chunk of words is ready.  If a compiled image of the lexicon exists its
+ * load time is reported too, and so is the HangmanTrie automaton with the
+ * lexicon alone and together with the short word list.
+ *
+ * Usage: java HangmanLexiconBenchmark [lexicon path] [runs]
+ */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+
+public class HangmanLexiconBenchmark {
+    private static final String DEFAULT_PATH = "./HangmanLexicon.txt";
+    private static final String SHORT_PATH = "./ShorterLexicon.txt";
+    private static final int DEFAULT_RUNS = 20;
+    private static final int WARMUP_RUNS = 5;
+
+    private static Object keepAlive;
+
+    public static void main(String[] args) throws IOException {
+        String path = args.length > 0 ? args[0] : DEFAULT_PATH;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_RUNS;
+
+        System.out.println("Lexicon: " + path);
+        report("ArrayList<String>", measureArrayList(path, runs), heapOf(() -> readArrayList(path)));
+        report("parallel loader", measureParallel(path, runs, false), heapOf(() -> HangmanLexiconLoader.load(path)));
+        System.out.printf("%-18s      %8.2f ms%n", "  first chunk", measureParallel(path, runs, true));
+
+        String imagePath = HangmanWordStore.getImagePath(path);
+        if (new File(imagePath).isFile()) {
+            report("lexicon image", measureImage(imagePath, runs), heapOf(() -> HangmanWordStore.loadImage(imagePath)));
+        }
+
+        report("HangmanTrie", measureTrie(runs, path), heapOf(() -> HangmanTrie.load(path)));
+        if (new File(SHORT_PATH).isFile()) {
+            report("  + short list", measureTrie(runs, path, SHORT_PATH), heapOf(() -> HangmanTrie.load(path, SHORT_PATH)));
+        }
+        HangmanTrie trie = (HangmanTrie) keepAlive;
+        System.out.printf("%-18s %d nodes, %d edges%n", "  automaton", trie.getNodeCount(), trie.getEdgeCount());
+    }
+
+    private static double measureArrayList(String path, int runs) throws IOException {
+        for (int i = 0; i < WARMUP_RUNS; i++) keepAlive = readArrayList(path);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) keepAlive = readArrayList(path);
+        return (System.nanoTime() - start) / 1e6 / runs;
+    }
+
+    private static double measureParallel(String path, int runs, boolean firstChunkOnly) throws IOException {
+        for (int i = 0; i < WARMUP_RUNS; i++) keepAlive = HangmanLexiconLoader.load(path);
+
+        long total = 0;
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            HangmanLexiconLoader.Loading loading = HangmanLexiconLoader.start(path);
+            keepAlive = firstChunkOnly ? loading.getFirstChunk() : loading.getStore();
+            total += System.nanoTime() - start;
+
+            loading.getStore();  // don't let the next run overlap this one
+        }
+
+        return total / 1e6 / runs;
+    }
+
+    private static double measureImage(String imagePath, int runs) throws IOException {
+        for (int i = 0; i < WARMUP_RUNS; i++) keepAlive = HangmanWordStore.loadImage(imagePath);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) keepAlive = HangmanWordStore.loadImage(imagePath);
+        return (System.nanoTime() - start) / 1e6 / runs;
+    }
+
+    private static double measureTrie(int runs, String... paths) throws IOException {
+        for (int i = 0; i < WARMUP_RUNS; i++) keepAlive = HangmanTrie.load(paths);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) keepAlive = HangmanTrie.load(paths);
+        return (System.nanoTime() - start) / 1e6 / runs;
+    }
+
+    // rough retained heap size of whatever the loader returns
+    private static long heapOf(Loader loader) throws IOException {
+        keepAlive = null;
+        long before = usedHeap();
+        keepAlive = loader.load();
+        return usedHeap() - before;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void report(String name, double millis, long bytes) {
+        System.out.printf("%-18s load %8.2f ms   heap %8d KB%n", name, millis, bytes / 1024);
+    }
+
+    // the reading loop HangmanLexicon used before the word store
+    private static ArrayList<String> readArrayList(String path) throws IOException {
+        ArrayList<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+
+        return lines;
+    }
+
+    private interface Loader {
+        Object load() throws IOException;
+    }
+}
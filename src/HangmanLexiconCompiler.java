@@ -0,0 +1,33 @@
+/*
+ * File: HangmanLexiconCompiler.java
+ * ---------------------------------
+ * This file turns a plain text lexicon into the binary image that
+ * HangmanLexicon loads at startup when it exists.
+ *
+ * Usage: java HangmanLexiconCompiler [lexicon path] [image path]
+ */
+
+import java.io.IOException;
+
+public class HangmanLexiconCompiler {
+    private static final String DEFAULT_PATH = "./HangmanLexicon.txt";
+
+    public static void main(String[] args) throws IOException {
+        String path = args.length > 0 ? args[0] : DEFAULT_PATH;
+        String imagePath = args.length > 1 ? args[1] : HangmanWordStore.getImagePath(path);
+
+        long start = System.nanoTime();
+        HangmanWordStore store = HangmanLexiconLoader.load(path);
+        store.writeImage(imagePath);
+
+        // read it back so a broken image is never left behind silently
+        HangmanWordStore check = HangmanWordStore.loadImage(imagePath);
+        if (check.getWordCount() != store.getWordCount()) {
+            throw new IOException("image word count does not match " + path);
+        }
+
+        long millis = (System.nanoTime() - start) / 1000000;
+        System.out.println("Compiled " + store.getWordCount() + " words from " + path
+                + " into " + imagePath + " in " + millis + " ms");
+    }
+}
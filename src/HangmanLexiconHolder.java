@@ -0,0 +1,169 @@
+/*
+ * File: HangmanLexiconHolder.java
+ * -------------------------------
+ * This file keeps the lexicon a game picks its words from up to date
+ * with its word file.  A daemon thread watches the file's directory;
+ * once the file (or its precompiled image) has changed and stayed
+ * quiet for a moment, the thread loads it into a new HangmanLexicon,
+ * builds its indexes, and only then publishes it as the shared lexicon
+ * of that path (see HangmanLexicon.forPath).  Games read get() when a
+ * round starts, so a round in progress keeps its word and the next one
+ * draws from the new list; no game thread ever waits for a reload.
+ *
+ * There is one holder per path, so however many games watch a file it
+ * is watched by one thread and held in memory once.
+ *
+ * A reload that fails or finds no words keeps the old lexicon.  Every
+ * reload is recorded in HangmanMetrics: how long loading and indexing
+ * took and how long the swap itself held anything up.
+ */
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+public class HangmanLexiconHolder {
+    private static final long QUIET_MILLIS = 250;  // writers get this long to finish before a reload
+
+    private static final HangmanMetrics.Histogram RELOAD_TIME =
+            HangmanMetrics.histogram("hangman_lexicon_reload_seconds", "", "Time to load and index a changed lexicon",
+                    HangmanMetrics.NANOS, HangmanMetrics.exponentialBounds(1000000, 2, 17));
+    private static final HangmanMetrics.Histogram SWAP_TIME =
+            HangmanMetrics.histogram("hangman_lexicon_swap_seconds", "", "Time to publish a reloaded lexicon",
+                    HangmanMetrics.NANOS, HangmanMetrics.exponentialBounds(100, 4, 8));
+    private static final HangmanMetrics.Counter RELOADS =
+            HangmanMetrics.counter("hangman_lexicon_reloads_total", "result=\"ok\"", "Lexicon reloads");
+    private static final HangmanMetrics.Counter FAILED_RELOADS =
+            HangmanMetrics.counter("hangman_lexicon_reloads_total", "result=\"failed\"", "Lexicon reloads");
+
+    private static final ConcurrentHashMap<String, HangmanLexiconHolder> BY_PATH = new ConcurrentHashMap<>();
+
+    private final String path;
+    private WatchService watcher;
+
+    private HangmanLexiconHolder(String path) {
+        this.path = path;
+    }
+
+/** Returns the shared holder of a word file, without watching it yet. */
+    public static HangmanLexiconHolder forPath(String path) {
+        return BY_PATH.computeIfAbsent(path, HangmanLexiconHolder::new);
+    }
+
+/** Returns the holder of the game's default word list, reloading it when it changes. */
+    public static HangmanLexiconHolder watchDefault() {
+        HangmanLexiconHolder holder = forPath(HangmanLexicon.LEXICON_PATH);
+        holder.watch();
+        return holder;
+    }
+
+/**
+ * Returns the lexicon new rounds should use.  Only the very first call
+ * loads it, and only until the first part of a large list is parsed;
+ * later calls pick up the rest (see HangmanLexicon.forPathEarly).
+ */
+    public HangmanLexicon get() {
+        return HangmanLexicon.forPathEarly(path);
+    }
+
+/** Starts watching the word file; does nothing if it is already watched or can't be. */
+    public synchronized void watch() {
+        if (watcher != null) return;
+
+        Path dir = Paths.get(path).toAbsolutePath().getParent();
+        try {
+            watcher = FileSystems.getDefault().newWatchService();
+            dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            System.err.println("cannot watch " + path + " for changes: " + e.getMessage());
+            stop();
+            return;
+        }
+
+        Thread thread = new Thread(this::watchLoop, "hangman-lexicon-watch");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+/** Stops watching the word file. */
+    public synchronized void stop() {
+        if (watcher == null) return;
+
+        try {
+            watcher.close();
+        } catch (IOException e) {
+            // the watch thread stops either way
+        }
+        watcher = null;
+    }
+
+/**
+ * Loads the word file again and publishes it if it has any words.
+ * Called by the watch thread; returns true if the lexicon was swapped.
+ */
+    public boolean reload() {
+        long start = System.nanoTime();
+        HangmanLexicon fresh = new HangmanLexicon(path);
+        if (fresh.getWordCount() == 0) {
+            FAILED_RELOADS.increment();
+            System.err.println("kept the old word list: " + path + " has no words");
+            return false;
+        }
+
+        // build the indexes here, so no game thread has to
+        fresh.getIndex();
+        fresh.getCandidateIndex();
+        long built = System.nanoTime();
+        RELOAD_TIME.record(built - start);
+
+        HangmanLexicon.publish(path, fresh);
+        SWAP_TIME.record(System.nanoTime() - built);
+        RELOADS.increment();
+        return true;
+    }
+
+    private void watchLoop() {
+        WatchService service = watcher;
+        String textName = Paths.get(path).getFileName().toString();
+        String imageName = Paths.get(HangmanWordStore.getImagePath(path)).getFileName().toString();
+
+        try {
+            while (true) {
+                boolean changed = takeChange(service.take(), textName, imageName);
+
+                // let the writer finish: wait until the directory has been quiet for a while
+                WatchKey key;
+                while ((key = service.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= takeChange(key, textName, imageName);
+                }
+
+                if (changed) reload();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // stopped
+        }
+    }
+
+    // drains a watch key and tells whether it touched the word file or its image
+    private static boolean takeChange(WatchKey key, String textName, String imageName) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            Object name = event.context();
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || name == null
+                    || name.toString().equals(textName) || name.toString().equals(imageName)) {
+                changed = true;
+            }
+        }
+        key.reset();
+
+        return changed;
+    }
+}
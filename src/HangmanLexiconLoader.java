@@ -0,0 +1,260 @@
+/*
+ * File: HangmanLexiconLoader.java
+ * -------------------------------
+ * This file loads a text lexicon on all cores.  The file is memory
+ * mapped and split into chunks that end on a line break, each chunk is
+ * parsed on the fork/join pool and the results are merged, in file
+ * order, into one packed word store.
+ *
+ * Every line is normalised the way the game reads guesses: surrounding
+ * blanks are dropped, lowercase letters are uppercased, and a line with
+ * anything other than the letters A to Z, or more letters than a round
+ * can hold (HangmanRound.MAX_WORD_LENGTH), is skipped.
+ *
+ * Loading can also be consumed as a stream: the first chunk to finish
+ * is available on its own, so a round can start on it while the rest
+ * of a large lexicon is still being parsed (see
+ * HangmanLexicon.forPathEarly).
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+public class HangmanLexiconLoader {
+    private static final int MIN_CHUNK_BYTES = 1 << 16;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private HangmanLexiconLoader() {
+    }
+
+/** Loads and normalises a text lexicon, waiting until all of it is parsed. */
+    public static HangmanWordStore load(String path) throws IOException {
+        return start(path).getStore();
+    }
+
+/** Loads and normalises the text between a buffer's position and limit, waiting until all of it is parsed. */
+    public static HangmanWordStore load(ByteBuffer text) throws IOException {
+        return start(text).getStore();
+    }
+
+/** Starts loading a text lexicon in the background and returns right away. */
+    public static Loading start(String path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("lexicon is too large: " + path);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        return start(buffer);
+    }
+
+/** Starts loading the text between a buffer's position and limit in the background. */
+    public static Loading start(ByteBuffer text) {
+        ByteBuffer buffer = text.slice();
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int[] bounds = splitAtLineBreaks(buffer, pool.getParallelism() * CHUNKS_PER_THREAD);
+
+        List<CompletableFuture<Chunk>> chunks = new ArrayList<>(bounds.length - 1);
+        for (int i = 0; i + 1 < bounds.length; i++) {
+            int from = bounds[i];
+            int to = bounds[i + 1];
+            chunks.add(CompletableFuture.supplyAsync(() -> parseChunk(buffer, from, to), pool));
+        }
+
+        return new Loading(chunks);
+    }
+
+    // chunk boundaries: each chunk but the last ends right after a '\n'
+    private static int[] splitAtLineBreaks(ByteBuffer buffer, int maxChunks) {
+        int size = buffer.limit();
+        int chunkCount = Math.max(1, Math.min(maxChunks, size / MIN_CHUNK_BYTES));
+        int[] bounds = new int[chunkCount + 1];
+
+        int count = 1;
+        for (int i = 1; i < chunkCount; i++) {
+            int pos = Math.max(bounds[count - 1], (int) ((long) size * i / chunkCount));
+            while (pos < size && buffer.get(pos) != '\n') pos++;
+            if (pos >= size) break;
+
+            bounds[count++] = pos + 1;
+        }
+        bounds[count] = size;
+
+        return Arrays.copyOf(bounds, count + 1);
+    }
+
+    private static Chunk parseChunk(ByteBuffer buffer, int from, int to) {
+        // one bulk copy out of the mapping, then plain array access
+        byte[] text = new byte[to - from];
+        buffer.duplicate().position(from).get(text);
+
+        Chunk chunk = new Chunk(text);
+        int lineStart = 0;
+        for (int pos = 0; pos <= text.length; pos++) {
+            if (pos == text.length || text[pos] == '\n') {
+                chunk.addLine(lineStart, pos);
+                lineStart = pos + 1;
+            }
+        }
+
+        return chunk;
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+/** A lexicon being loaded in the background. */
+    public static class Loading {
+        private final List<CompletableFuture<Chunk>> chunks;
+        private final CompletableFuture<HangmanWordStore> firstChunk;
+        private final CompletableFuture<HangmanWordStore> store;
+
+        private Loading(List<CompletableFuture<Chunk>> chunks) {
+            CompletableFuture<?>[] all = chunks.toArray(new CompletableFuture<?>[0]);
+            this.chunks = chunks;
+            this.firstChunk = CompletableFuture.anyOf(all).thenApply(chunk -> ((Chunk) chunk).toStore());
+            this.store = CompletableFuture.allOf(all).thenApply(done -> merge());
+        }
+
+/** Returns how many chunks the text was split into; with one, the first chunk is the whole lexicon. */
+        public int getChunkCount() {
+            return chunks.size();
+        }
+
+/**
+ * Waits for the first chunk to be parsed and returns its words.  This
+ * is only part of the lexicon (possibly not its beginning), and can be
+ * empty if that chunk had no valid words.
+ */
+        public HangmanWordStore getFirstChunk() throws IOException {
+            return await(firstChunk);
+        }
+
+/** Waits until the whole lexicon is parsed and returns it. */
+        public HangmanWordStore getStore() throws IOException {
+            return await(store);
+        }
+
+/** Returns true once the whole lexicon is parsed. */
+        public boolean isDone() {
+            return store.isDone();
+        }
+
+/** Hands the whole lexicon to an action, on a pool thread, once it is parsed; not at all if loading fails. */
+        public void whenLoaded(Consumer<HangmanWordStore> action) {
+            store.thenAccept(action);
+        }
+
+/** Waits for the whole lexicon and returns how many lines were skipped as invalid. */
+        public int getRejectedCount() throws IOException {
+            getStore();
+
+            int rejected = 0;
+            for (CompletableFuture<Chunk> chunk : chunks) {
+                rejected += chunk.join().rejected;
+            }
+
+            return rejected;
+        }
+
+        private HangmanWordStore merge() {
+            int letterCount = 0;
+            int wordCount = 0;
+            for (CompletableFuture<Chunk> chunk : chunks) {
+                letterCount += chunk.join().letterCount;
+                wordCount += chunk.join().wordCount;
+            }
+
+            byte[] letters = new byte[letterCount];
+            int[] offsets = new int[wordCount + 1];
+            int letterPos = 0;
+            int wordPos = 0;
+            for (CompletableFuture<Chunk> future : chunks) {
+                Chunk chunk = future.join();
+                System.arraycopy(chunk.letters, 0, letters, letterPos, chunk.letterCount);
+                for (int i = 1; i <= chunk.wordCount; i++) {
+                    offsets[wordPos + i] = letterPos + chunk.offsets[i];
+                }
+
+                letterPos += chunk.letterCount;
+                wordPos += chunk.wordCount;
+            }
+
+            return new HangmanWordStore(letters, offsets, wordCount);
+        }
+
+        private static HangmanWordStore await(CompletableFuture<HangmanWordStore> future) throws IOException {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted while loading the lexicon", e);
+            } catch (ExecutionException | CompletionException e) {
+                throw new IOException("could not load the lexicon", e.getCause());
+            }
+        }
+    }
+
+    /*
+     * The words parsed from one chunk of the file.  Letters are packed
+     * in place into the chunk's copy of the text: a word never gets
+     * longer than its line, so writing never overtakes reading.
+     */
+    private static class Chunk {
+        final byte[] letters;
+        int[] offsets = new int[64];
+        int letterCount;
+        int wordCount;
+        int rejected;
+
+        Chunk(byte[] text) {
+            letters = text;
+        }
+
+        void addLine(int start, int end) {
+            while (start < end && isBlank(letters[start])) start++;
+            while (end > start && isBlank(letters[end - 1])) end--;
+            if (start == end) return;
+            if (end - start > HangmanRound.MAX_WORD_LENGTH) {
+                rejected++;
+                return;
+            }
+
+            int wordStart = letterCount;
+            for (int pos = start; pos < end; pos++) {
+                byte b = letters[pos];
+                if (b >= 'a' && b <= 'z') b -= 'a' - 'A';
+
+                if (b < 'A' || b > 'Z') {
+                    letterCount = wordStart;
+                    rejected++;
+                    return;
+                }
+                letters[letterCount++] = b;
+            }
+
+            if (++wordCount >= offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[wordCount] = letterCount;
+        }
+
+        HangmanWordStore toStore() {
+            return new HangmanWordStore(Arrays.copyOf(letters, letterCount), Arrays.copyOf(offsets, wordCount + 1), wordCount);
+        }
+    }
+}
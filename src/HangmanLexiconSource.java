@@ -0,0 +1,65 @@
+/*
+ * File: HangmanLexiconSource.java
+ * -------------------------------
+ * This file declares where a HangmanLexicon gets its words from: a
+ * text file, a precompiled image, a file that may have an image next
+ * to it, or a resource on the classpath.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+public interface HangmanLexiconSource {
+
+/** Reads the words into a packed word store. */
+    HangmanWordStore load() throws IOException;
+
+/** Returns a name for messages, usually the path. */
+    String getName();
+
+/** A text file with one word per line, parsed in parallel and normalised. */
+    static HangmanLexiconSource textFile(String path) {
+        return named(path, () -> HangmanLexiconLoader.load(path));
+    }
+
+/** A binary image written by HangmanLexiconCompiler. */
+    static HangmanLexiconSource image(String path) {
+        return named(path, () -> HangmanWordStore.loadImage(path));
+    }
+
+/** A text file, read from its precompiled image instead when there is an up to date one. */
+    static HangmanLexiconSource file(String path) {
+        return named(path, () -> HangmanWordStore.open(path));
+    }
+
+/** A text resource with one word per line, looked up on the classpath, parsed and normalised like a text file. */
+    static HangmanLexiconSource classpathResource(String name) {
+        return named("classpath:" + name, () -> {
+            try (InputStream in = HangmanLexiconSource.class.getResourceAsStream(name)) {
+                if (in == null) throw new IOException("no such resource: " + name);
+
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                in.transferTo(bytes);
+                return HangmanLexiconLoader.load(ByteBuffer.wrap(bytes.toByteArray()));
+            }
+        });
+    }
+
+    private static HangmanLexiconSource named(String name, Loader loader) {
+        return new HangmanLexiconSource() {
+            public HangmanWordStore load() throws IOException {
+                return loader.load();
+            }
+
+            public String getName() {
+                return name;
+            }
+        };
+    }
+
+    interface Loader {
+        HangmanWordStore load() throws IOException;
+    }
+}
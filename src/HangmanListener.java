@@ -0,0 +1,34 @@
+/*
+ * File: HangmanListener.java
+ * --------------------------
+ * This file declares the events a HangmanEngine reports while a round
+ * is played.  Frontends (console, canvas, simulations) implement the
+ * ones they care about; every method does nothing by default.
+ */
+
+public interface HangmanListener {
+
+/** Called once a new round has started. */
+    default void roundStarted(HangmanEngine engine) {
+    }
+
+/** Called after a letter of the word has been revealed. */
+    default void correctGuess(HangmanEngine engine, char letter) {
+    }
+
+/** Called after a wrong guess; wrongGuessNum counts the wrong guesses this round. */
+    default void incorrectGuess(HangmanEngine engine, char letter, int wrongGuessNum) {
+    }
+
+/** Called every second of a timed round with the time that is left. */
+    default void timerTicked(HangmanEngine engine, int timeLeft, int roundTime) {
+    }
+
+/** Called when the whole word has been guessed. */
+    default void roundWon(HangmanEngine engine) {
+    }
+
+/** Called when the player ran out of guesses, or out of time if timedOut is set. */
+    default void roundLost(HangmanEngine engine, boolean timedOut) {
+    }
+}
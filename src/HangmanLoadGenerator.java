@@ -0,0 +1,151 @@
+/*
+ * File: HangmanLoadGenerator.java
+ * -------------------------------
+ * This file opens many concurrent sessions against a HangmanServer,
+ * has each of them guess letters in order of how common they are,
+ * and reports the guess latency (time from sending a letter to its
+ * answer) over all sessions.  A guess that crosses a round timeout is
+ * answered in the next round and is left out of the latencies.
+ *
+ * Usage: java HangmanLoadGenerator [host] [port] [sessions] [guesses per session]
+ */
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HangmanLoadGenerator {
+    private static final int DEFAULT_SESSIONS = 10000;
+    private static final int DEFAULT_GUESSES = 20;
+    private static final String GUESS_ORDER = "ESIARNTOLCDUGPMKHBYFVWZXQJ";
+
+    public static void main(String[] args) throws InterruptedException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : HangmanServer.DEFAULT_PORT;
+        int sessions = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_SESSIONS;
+        int guesses = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_GUESSES;
+
+        long[][] latencies = new long[sessions][];
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(sessions);
+        ExecutorService clients = HangmanServer.newThreadPerTaskExecutor();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < sessions; i++) {
+            int session = i;
+            clients.execute(() -> {
+                try {
+                    latencies[session] = play(host, port, guesses);
+                } catch (IOException e) {
+                    failures.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        clients.shutdown();
+
+        report(latencies, sessions, failures.get(), seconds);
+    }
+
+    // plays one session and returns the latency of every guess in nanoseconds
+    private static long[] play(String host, int port, int guesses) throws IOException {
+        long[] latencies = new long[guesses];
+
+        try (Socket socket = new Socket(host, port)) {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            OutputStream out = socket.getOutputStream();
+            readLine(in, "ROUND");
+
+            int played = 0;  // letters already guessed in the current round
+            for (int i = 0; i < guesses; ) {
+                char letter = nextLetter(played);
+                played |= 1 << (letter - 'A');
+
+                long sent = System.nanoTime();
+                out.write(new byte[] { (byte) letter, '\n' });
+                out.flush();
+                String answer = readLine(in, null);
+
+                if (answer.startsWith("TIMEOUT")) {
+                    // the clock ended the round before the guess got there, so the server played
+                    // it in the next round; its answer is not a latency sample
+                    readLine(in, "ROUND");
+                    answer = readLine(in, null);
+                    played = 1 << (letter - 'A');
+                } else {
+                    latencies[i++] = System.nanoTime() - sent;
+                }
+
+                if (isRoundOver(answer)) {
+                    readLine(in, "ROUND");
+                    played = 0;
+                }
+            }
+
+            out.write("QUIT\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+
+        return latencies;
+    }
+
+    // the most common letter not guessed yet this round
+    private static char nextLetter(int played) {
+        for (int i = 0; i < GUESS_ORDER.length(); i++) {
+            char letter = GUESS_ORDER.charAt(i);
+            if ((played & (1 << (letter - 'A'))) == 0) return letter;
+        }
+
+        return GUESS_ORDER.charAt(0);
+    }
+
+    // a guess that solved the word or used the last attempt is followed by WIN/LOSE and a new ROUND
+    private static boolean isRoundOver(String answer) {
+        return (answer.startsWith("CORRECT") && answer.indexOf('-') < 0)
+                || (answer.startsWith("WRONG") && answer.endsWith(" 0"));
+    }
+
+    // returns the next line starting with prefix (any line if null), skipping clock ticks
+    private static String readLine(BufferedReader in, String prefix) throws IOException {
+        while (true) {
+            String line = in.readLine();
+            if (line == null) throw new IOException("server closed the session");
+            if (line.startsWith("TICK")) continue;
+            if (prefix == null || line.startsWith(prefix)) return line;
+        }
+    }
+
+    private static void report(long[][] latencies, int sessions, int failures, double seconds) {
+        int count = 0;
+        for (long[] session : latencies) {
+            if (session != null) count += session.length;
+        }
+
+        long[] all = new long[count];
+        int pos = 0;
+        for (long[] session : latencies) {
+            if (session == null) continue;
+            System.arraycopy(session, 0, all, pos, session.length);
+            pos += session.length;
+        }
+        Arrays.sort(all);
+
+        System.out.println(sessions + " sessions, " + failures + " failed, " + count + " guesses in "
+                + String.format("%.2f", seconds) + " s");
+        if (count > 0) {
+            System.out.printf("guess latency  p50 %.3f ms   p99 %.3f ms   max %.3f ms%n",
+                    all[count / 2] / 1e6, all[(int) (count * 0.99)] / 1e6, all[count - 1] / 1e6);
+        }
+    }
+}
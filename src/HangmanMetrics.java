@@ -0,0 +1,431 @@
+/*
+ * File: HangmanMetrics.java
+ * -------------------------
+ * This file keeps the game's metrics: counters, gauges and histograms
+ * in one registry per JVM.  Metrics are created once, usually into a
+ * static field, and recording into them afterwards never allocates or
+ * locks: counters and histogram buckets are LongAdders, and a histogram
+ * finds its bucket by a binary search over fixed bounds.
+ *
+ * The registry can be read two ways:
+ *   - over JMX, as the attributes of the MBean "hangman:type=Metrics";
+ *   - as Prometheus text, written to a file every few seconds (for a
+ *     node exporter textfile collector, say).
+ *
+ * Both are set up by exportFromProperties(), driven by these system
+ * properties:
+ *   hangman.metrics.jmx      register the MBean (default true)
+ *   hangman.metrics.file     path of the Prometheus file (no file if unset)
+ *   hangman.metrics.period   seconds between file dumps (default 15)
+ */
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.ObjectName;
+
+public class HangmanMetrics {
+    public static final String OBJECT_NAME = "hangman:type=Metrics";
+
+/** Divisor that turns nanoseconds into the seconds Prometheus expects. */
+    public static final double NANOS = 1e9;
+
+    private static final long DEFAULT_PERIOD_SECONDS = 15;
+
+    // keyed by name and labels, in registration order
+    private static final Map<String, Metric> METRICS = new LinkedHashMap<>();
+
+    private static ScheduledExecutorService dumper;
+    private static boolean jmxRegistered;
+
+    private HangmanMetrics() {
+    }
+
+/** Returns the counter with the given name, creating it on first use. */
+    public static Counter counter(String name, String help) {
+        return counter(name, "", help);
+    }
+
+/** Returns the counter with the given name and labels (like {@code cause="timer"}). */
+    public static Counter counter(String name, String labels, String help) {
+        return register(new Counter(name, labels, help), Counter.class);
+    }
+
+/** Registers a gauge that reads its value when the metrics are read. */
+    public static Gauge gauge(String name, String help, DoubleSupplier value) {
+        return register(new Gauge(name, "", help, value), Gauge.class);
+    }
+
+/**
+ * Returns the histogram with the given name, labels and bucket upper
+ * bounds (in recorded units, ascending); values are divided by unit
+ * when they are exported.
+ */
+    public static Histogram histogram(String name, String labels, String help, double unit, long... bounds) {
+        return register(new Histogram(name, labels, help, unit, bounds), Histogram.class);
+    }
+
+/** Returns count bucket bounds starting at start, each factor times the one before. */
+    public static long[] exponentialBounds(long start, double factor, int count) {
+        long[] bounds = new long[count];
+        double bound = start;
+        for (int i = 0; i < count; i++) {
+            bounds[i] = Math.round(bound);
+            bound *= factor;
+        }
+
+        return bounds;
+    }
+
+/** Returns the bounds 1, 2, ..., max. */
+    public static long[] linearBounds(int max) {
+        long[] bounds = new long[max];
+        for (int i = 0; i < max; i++) bounds[i] = i + 1;
+
+        return bounds;
+    }
+
+    private static <M extends Metric> M register(M metric, Class<M> type) {
+        String key = metric.name + metric.labels;
+        synchronized (METRICS) {
+            Metric existing = METRICS.get(key);
+            if (existing == null) {
+                METRICS.put(key, metric);
+                return metric;
+            }
+            if (!type.isInstance(existing)) {
+                throw new IllegalArgumentException(key + " is already a " + existing.getClass().getSimpleName());
+            }
+
+            return type.cast(existing);
+        }
+    }
+
+    private static List<Metric> snapshot() {
+        synchronized (METRICS) {
+            return new ArrayList<>(METRICS.values());
+        }
+    }
+
+/** Sets up JMX and the file dump as the system properties ask; calling it again does nothing more. */
+    public static synchronized void exportFromProperties() {
+        if (Boolean.parseBoolean(System.getProperty("hangman.metrics.jmx", "true"))) {
+            registerJmx();
+        }
+
+        String file = System.getProperty("hangman.metrics.file");
+        if (file != null && dumper == null) {
+            long period = Long.getLong("hangman.metrics.period", DEFAULT_PERIOD_SECONDS);
+            startDump(Paths.get(file), period);
+        }
+    }
+
+/** Registers the MBean with the platform MBean server. */
+    public static synchronized void registerJmx() {
+        if (jmxRegistered) return;
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsMBean(), new ObjectName(OBJECT_NAME));
+            jmxRegistered = true;
+        } catch (JMException e) {
+            System.err.println("cannot register metrics MBean: " + e.getMessage());
+        }
+    }
+
+/** Writes the metrics to the file every period seconds, on a daemon thread. */
+    public static synchronized void startDump(Path file, long periodSeconds) {
+        if (dumper != null) dumper.shutdownNow();
+
+        dumper = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "hangman-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleAtFixedRate(() -> {
+            try {
+                writeFile(file);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("cannot write metrics to " + file + ": " + e.getMessage());
+            }
+        }, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+/** Writes the metrics to a file, replacing it in one step so readers never see half of it. */
+    public static void writeFile(Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            writePrometheus(out);
+        }
+
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+/** Writes all metrics in the Prometheus text format. */
+    public static void writePrometheus(Appendable out) throws IOException {
+        // every labelled series of a name goes under one HELP/TYPE header
+        Map<String, List<Metric>> byName = new LinkedHashMap<>();
+        for (Metric metric : snapshot()) {
+            byName.computeIfAbsent(metric.name, name -> new ArrayList<>()).add(metric);
+        }
+
+        for (List<Metric> series : byName.values()) {
+            Metric first = series.get(0);
+            out.append("# HELP ").append(first.name).append(' ').append(first.help).append('\n');
+            out.append("# TYPE ").append(first.name).append(' ').append(first.type()).append('\n');
+            for (Metric metric : series) {
+                metric.writePrometheus(out);
+            }
+        }
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+
+        return Double.toString(value);
+    }
+
+    // {a="b"} plus one more label, or just the one
+    private static String withLabel(String labels, String label) {
+        return labels.isEmpty() ? "{" + label + "}" : labels.substring(0, labels.length() - 1) + "," + label + "}";
+    }
+
+    private abstract static class Metric {
+        final String name;
+        final String labels;  // "" or {name="value",...}
+        final String help;
+
+        Metric(String name, String labels, String help) {
+            this.name = name;
+            this.labels = labels.isEmpty() || labels.startsWith("{") ? labels : "{" + labels + "}";
+            this.help = help;
+        }
+
+        abstract String type();
+
+        abstract void writePrometheus(Appendable out) throws IOException;
+
+        // attribute name over JMX, with a suffix like _count before the labels
+        String key(String suffix) {
+            return name + suffix + labels;
+        }
+    }
+
+/** A count that only goes up. */
+    public static class Counter extends Metric {
+        private final LongAdder count = new LongAdder();
+
+        private Counter(String name, String labels, String help) {
+            super(name, labels, help);
+        }
+
+        public void increment() {
+            count.increment();
+        }
+
+        public void add(long n) {
+            count.add(n);
+        }
+
+        public long get() {
+            return count.sum();
+        }
+
+        String type() {
+            return "counter";
+        }
+
+        void writePrometheus(Appendable out) throws IOException {
+            out.append(name).append(labels).append(' ').append(Long.toString(get())).append('\n');
+        }
+    }
+
+/** A value read on demand. */
+    public static class Gauge extends Metric {
+        private final DoubleSupplier value;
+
+        private Gauge(String name, String labels, String help, DoubleSupplier value) {
+            super(name, labels, help);
+            this.value = value;
+        }
+
+        public double get() {
+            return value.getAsDouble();
+        }
+
+        String type() {
+            return "gauge";
+        }
+
+        void writePrometheus(Appendable out) throws IOException {
+            out.append(name).append(labels).append(' ').append(format(get())).append('\n');
+        }
+    }
+
+/** A distribution of values over fixed buckets. */
+    public static class Histogram extends Metric {
+        private final long[] bounds;
+        private final LongAdder[] buckets;  // one more than bounds, for everything larger
+        private final LongAdder sum = new LongAdder();
+        private final double unit;
+
+        private Histogram(String name, String labels, String help, double unit, long[] bounds) {
+            super(name, labels, help);
+            this.bounds = bounds.clone();
+            this.unit = unit;
+            buckets = new LongAdder[bounds.length + 1];
+            for (int i = 0; i < buckets.length; i++) buckets[i] = new LongAdder();
+        }
+
+/** Records one value, in the units of the bounds. */
+        public void record(long value) {
+            int bucket = Arrays.binarySearch(bounds, value);
+            if (bucket < 0) bucket = -bucket - 1;
+
+            buckets[bucket].increment();
+            sum.add(value);
+        }
+
+        public long getCount() {
+            long count = 0;
+            for (LongAdder bucket : buckets) count += bucket.sum();
+
+            return count;
+        }
+
+/** Returns the sum of the recorded values, in exported units. */
+        public double getSum() {
+            return sum.sum() / unit;
+        }
+
+/** Returns the upper bound of the bucket holding the given quantile, in exported units (infinity past the last bound). */
+        public double getQuantile(double quantile) {
+            long[] counts = new long[buckets.length];
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets[i].sum();
+                total += counts[i];
+            }
+            if (total == 0) return 0;
+
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < bounds.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) return bounds[i] / unit;
+            }
+
+            return Double.POSITIVE_INFINITY;
+        }
+
+        String type() {
+            return "histogram";
+        }
+
+        void writePrometheus(Appendable out) throws IOException {
+            long cumulative = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                cumulative += buckets[i].sum();
+                String le = i < bounds.length ? format(bounds[i] / unit) : "+Inf";
+                out.append(name).append("_bucket").append(withLabel(labels, "le=\"" + le + "\""))
+                        .append(' ').append(Long.toString(cumulative)).append('\n');
+            }
+            out.append(name).append("_sum").append(labels).append(' ').append(format(getSum())).append('\n');
+            out.append(name).append("_count").append(labels).append(' ').append(Long.toString(cumulative)).append('\n');
+        }
+    }
+
+    /*
+     * The registry as an MBean: a counter or gauge is one attribute, a
+     * histogram is four (_count, _sum, _p50 and _p99).  Attributes are
+     * read from the live metrics, so metrics created after registration
+     * show up too.
+     */
+    private static class MetricsMBean implements DynamicMBean {
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            for (Metric metric : snapshot()) {
+                if (metric instanceof Histogram) {
+                    Histogram histogram = (Histogram) metric;
+                    if (attribute.equals(metric.key("_count"))) return histogram.getCount();
+                    if (attribute.equals(metric.key("_sum"))) return histogram.getSum();
+                    if (attribute.equals(metric.key("_p50"))) return histogram.getQuantile(0.5);
+                    if (attribute.equals(metric.key("_p99"))) return histogram.getQuantile(0.99);
+                } else if (attribute.equals(metric.key(""))) {
+                    return metric instanceof Counter ? (Object) ((Counter) metric).get() : (Object) ((Gauge) metric).get();
+                }
+            }
+
+            throw new AttributeNotFoundException(attribute);
+        }
+
+        public AttributeList getAttributes(String[] attributes) {
+            AttributeList list = new AttributeList();
+            for (String attribute : attributes) {
+                try {
+                    list.add(new Attribute(attribute, getAttribute(attribute)));
+                } catch (AttributeNotFoundException e) {
+                    // left out, as the interface allows
+                }
+            }
+
+            return list;
+        }
+
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("metrics are read-only");
+        }
+
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        public Object invoke(String actionName, Object[] params, String[] signature) {
+            throw new UnsupportedOperationException(actionName);
+        }
+
+        public MBeanInfo getMBeanInfo() {
+            List<MBeanAttributeInfo> attributes = new ArrayList<>();
+            for (Metric metric : snapshot()) {
+                if (metric instanceof Histogram) {
+                    attributes.add(attribute(metric.key("_count"), "long", metric.help + " (count)"));
+                    attributes.add(attribute(metric.key("_sum"), "double", metric.help + " (sum)"));
+                    attributes.add(attribute(metric.key("_p50"), "double", metric.help + " (median bucket)"));
+                    attributes.add(attribute(metric.key("_p99"), "double", metric.help + " (99th percentile bucket)"));
+                } else {
+                    attributes.add(attribute(metric.key(""), metric instanceof Counter ? "long" : "double", metric.help));
+                }
+            }
+
+            return new MBeanInfo(HangmanMetrics.class.getName(), "Hangman game metrics",
+                    attributes.toArray(new MBeanAttributeInfo[0]), null, null, null);
+        }
+
+        private static MBeanAttributeInfo attribute(String name, String type, String description) {
+            return new MBeanAttributeInfo(name, type, description, true, false, false);
+        }
+    }
+}
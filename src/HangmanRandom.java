@@ -0,0 +1,105 @@
+/*
+ * File: HangmanRandom.java
+ * ------------------------
+ * This file contains the random number generator games pick their
+ * words with.  It is a java.util.Random, so it fits everything that
+ * takes one (such as the HangmanWordIndex pickers), but draws its
+ * numbers from a SplittableRandom: there is no shared seed to update
+ * with compare-and-set, so a generator is meant to belong to one
+ * session or thread, and split() hands out independent streams for
+ * others.
+ *
+ * split() uses SplittableRandom.split(), which gives every child its
+ * own seed and gamma, so the streams it hands out don't overlap.  The
+ * split is deterministic: starting the first generator from the same
+ * seed (-Dhangman.seed=<n>) and splitting in the same order gives
+ * every session the same words in the same order again.  A split-off
+ * generator reports the seed of the generator it came from.  A
+ * deserialized generator starts over from its seed.
+ */
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+public class HangmanRandom extends Random {
+    private static final long serialVersionUID = 1L;
+
+    private long seed;
+    private transient SplittableRandom random;  // replaced by setSeed; not serializable
+
+/** Creates a generator with a seed of its own. */
+    public HangmanRandom() {
+        this(new SplittableRandom().nextLong());
+    }
+
+/** Creates a generator that gives the same numbers every time for the same seed. */
+    public HangmanRandom(long seed) {
+        super(seed);  // calls setSeed
+    }
+
+    // a generator split off another one, keeping the original seed for getSeed()
+    private HangmanRandom(long seed, SplittableRandom random) {
+        super(seed);
+        this.random = random;
+    }
+
+/** Returns a generator seeded by the hangman.seed system property, or a randomly seeded one. */
+    public static HangmanRandom fromProperties() {
+        Long seed = Long.getLong("hangman.seed");
+        return seed != null ? new HangmanRandom(seed) : new HangmanRandom();
+    }
+
+/** Starts the generator over from the given seed. */
+    public synchronized void setSeed(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        random = new SplittableRandom(seed);
+    }
+
+/**
+ * Returns the seed the generator (or the one it was split from) started
+ * from, to reproduce its numbers.
+ */
+    public long getSeed() {
+        return seed;
+    }
+
+/**
+ * Returns a new generator for another session or thread.  Its stream
+ * doesn't overlap this one's and is the same in every run from the same
+ * seed, given the same order of splits.
+ */
+    public HangmanRandom split() {
+        return new HangmanRandom(seed, random.split());
+    }
+
+    protected int next(int bits) {
+        return random.nextInt() >>> (Integer.SIZE - bits);
+    }
+
+    public int nextInt() {
+        return random.nextInt();
+    }
+
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    public long nextLong() {
+        return random.nextLong();
+    }
+
+    public double nextDouble() {
+        return random.nextDouble();
+    }
+
+    public boolean nextBoolean() {
+        return random.nextBoolean();
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * File: HangmanRandomBenchmark.java
+ * ---------------------------------
+ * This file measures how word selection scales with threads for each
+ * way of getting random numbers: the one RandomGenerator the games
+ * used to share, ThreadLocalRandom, a HangmanRandom split off for each
+ * thread, and that HangmanRandom drawing through per-thread shuffle
+ * bags.  Every thread picks words from a difficulty band of the full
+ * lexicon for a fixed time; the total picks per second are reported
+ * for 1, 2, 4 ... threads up to twice the number of cores.
+ *
+ * Usage: java -cp acm.jar:out/production/assignment4 HangmanRandomBenchmark [lexicon path] [seconds]
+ */
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import acm.util.RandomGenerator;
+
+public class HangmanRandomBenchmark {
+    private static final String DEFAULT_PATH = "./HangmanLexicon.txt";
+    private static final double DEFAULT_SECONDS = 1;
+    private static final int BANDS = 10;
+
+    private static volatile int sink;
+
+    public static void main(String[] args) throws InterruptedException {
+        String path = args.length > 0 ? args[0] : DEFAULT_PATH;
+        long nanos = (long) ((args.length > 1 ? Double.parseDouble(args[1]) : DEFAULT_SECONDS) * 1e9);
+
+        HangmanWordIndex index = HangmanLexicon.forPath(path).getIndex();
+        int maxThreads = 2 * Runtime.getRuntime().availableProcessors();
+        HangmanRandom seeds = new HangmanRandom(1);
+        RandomGenerator shared = RandomGenerator.getInstance();
+
+        System.out.printf("%-24s", "picks/s (millions)");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) System.out.printf(" %8d thr", threads);
+        System.out.println();
+
+        report("shared RandomGenerator", maxThreads, nanos, thread -> pickWith(index, () -> shared));
+        report("ThreadLocalRandom", maxThreads, nanos, thread -> pickWith(index, ThreadLocalRandom::current));
+        report("HangmanRandom split", maxThreads, nanos, thread -> {
+            HangmanRandom random = seeds.split();
+            return pickWith(index, () -> random);
+        });
+        report("  + shuffle bags", maxThreads, nanos, thread -> drawWith(index, seeds.split()));
+    }
+
+    private static void report(String name, int maxThreads, long nanos, IntFunction<Runnable> pickers)
+            throws InterruptedException {
+        run(1, nanos / 2, pickers);  // warm up
+        System.out.printf("%-24s", name);
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            System.out.printf(" %12.2f", run(threads, nanos, pickers) / (nanos / 1e9) / 1e6);
+        }
+        System.out.println();
+    }
+
+    // runs one picker per thread for the given time and returns the total number of picks
+    private static long run(int threads, long nanos, IntFunction<Runnable> pickers) throws InterruptedException {
+        LongAdder picks = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            Runnable picker = pickers.apply(t);
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                long end = System.nanoTime() + nanos;
+                long count = 0;
+                while ((count & 1023) != 0 || System.nanoTime() < end) {
+                    picker.run();
+                    count++;
+                }
+                picks.add(count);
+            });
+            workers[t].start();
+        }
+
+        start.countDown();
+        for (Thread worker : workers) worker.join();
+        return picks.sum();
+    }
+
+    // the generator is looked up on every pick, so ThreadLocalRandom gets the picking thread's own
+    private static Runnable pickWith(HangmanWordIndex index, Supplier<Random> rgen) {
+        int[] round = { 0 };
+        return () -> sink = index.pickByDifficultyBand(rgen.get(), round[0]++ % BANDS, BANDS);
+    }
+
+    private static Runnable drawWith(HangmanWordIndex index, HangmanRandom random) {
+        HangmanShuffleBag[] bags = new HangmanShuffleBag[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            bags[band] = new HangmanShuffleBag(index.getDifficultyBandStart(band, BANDS), index.getDifficultyBandEnd(band, BANDS));
+        }
+
+        int[] round = { 0 };
+        return () -> sink = index.getWordByScoreRank(bags[round[0]++ % BANDS].next(random));
+    }
+}
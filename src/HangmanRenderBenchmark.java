@@ -0,0 +1,223 @@
+/*
+ * File: HangmanRenderBenchmark.java
+ * ---------------------------------
+ * This file measures how long the canvases take to draw, without a
+ * window.  Each canvas is driven through a scripted round (reset, the
+ * word, eight wrong guesses and, on the extended canvas, a run of timer
+ * ticks) and after every step the whole canvas is painted into an
+ * offscreen image.  For every frame of the script it reports the median
+ * and worst time and the bytes allocated, step and paint together.
+ *
+ * The frames of the last run can be written out as PNGs, and a later
+ * run can be compared pixel for pixel against such a set, so the same
+ * script doubles as a regression test for the drawing code:
+ *
+ *   -dump <dir>      write every frame to <dir>
+ *   -compare <dir>   compare every frame against <dir>, exit 1 on a mismatch
+ *   -runs <n>        measured runs of the script (default 200)
+ *
+ * Usage: java -cp acm.jar:out/production/assignment4 HangmanRenderBenchmark [options]
+ */
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.imageio.ImageIO;
+import acm.graphics.GCanvas;
+
+public class HangmanRenderBenchmark {
+    private static final int CANVAS_WIDTH = 800;
+    private static final int CANVAS_HEIGHT = 900;
+    private static final int WARMUP_RUNS = 50;
+    private static final int DEFAULT_RUNS = 200;
+    private static final String WORD = "ZYZZYVAS";
+    private static final String WRONG_LETTERS = "BCDEFGHI";
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+
+        File dumpDir = null;
+        File compareDir = null;
+        int runs = DEFAULT_RUNS;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+            case "-dump":
+                dumpDir = new File(args[i + 1]);
+                break;
+            case "-compare":
+                compareDir = new File(args[i + 1]);
+                break;
+            case "-runs":
+                runs = Integer.parseInt(args[i + 1]);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+        if (dumpDir != null && !dumpDir.isDirectory() && !dumpDir.mkdirs()) {
+            throw new IOException("cannot create " + dumpDir);
+        }
+
+        HangmanCanvas canvas = new HangmanCanvas();
+        HangmanCanvasExt canvasExt = new HangmanCanvasExt();
+
+        int mismatches = 0;
+        mismatches += run("canvas", canvas, script(canvas), runs, dumpDir, compareDir);
+        mismatches += run("canvasExt", canvasExt, script(canvasExt), runs, dumpDir, compareDir);
+
+        if (compareDir != null) {
+            System.out.println(mismatches == 0 ? "all frames match " + compareDir
+                    : mismatches + " frame(s) differ from " + compareDir);
+        }
+        System.exit(mismatches == 0 ? 0 : 1);
+    }
+
+    private static List<Frame> script(HangmanCanvas canvas) {
+        List<Frame> frames = new ArrayList<>();
+        frames.add(new Frame("reset", canvas::reset));
+        frames.add(new Frame("word", () -> canvas.displayWord(hidden(WORD))));
+        addWrongGuesses(frames, canvas::noteIncorrectGuess);
+
+        return frames;
+    }
+
+    private static List<Frame> script(HangmanCanvasExt canvas) {
+        List<Frame> frames = new ArrayList<>();
+        frames.add(new Frame("reset", canvas::reset));
+        frames.add(new Frame("round", () -> canvas.drawRoundCount(1)));
+        frames.add(new Frame("word", () -> canvas.displayWord(hidden(WORD))));
+        addWrongGuesses(frames, canvas::noteIncorrectGuess);
+
+        int roundTime = HangmanEngine.ROUND_TIME;
+        for (int timeLeft = roundTime - 1; timeLeft >= 0; timeLeft -= 4) {
+            int t = timeLeft;
+            frames.add(new Frame("tick" + t, () -> canvas.updateTimer(t, roundTime)));
+        }
+
+        return frames;
+    }
+
+    private static void addWrongGuesses(List<Frame> frames, WrongGuess canvas) {
+        for (int i = 1; i <= HangmanEngine.GUESS_COUNT; i++) {
+            int num = i;
+            char letter = WRONG_LETTERS.charAt(i - 1);
+            frames.add(new Frame("wrong" + num, () -> canvas.note(letter, num)));
+        }
+    }
+
+    private static String hidden(String word) {
+        char[] dashes = new char[word.length()];
+        Arrays.fill(dashes, '-');
+        return new String(dashes);
+    }
+
+    // plays the script for warmup and measured runs; returns the number of frames that differ
+    private static int run(String name, GCanvas canvas, List<Frame> frames, int runs, File dumpDir, File compareDir)
+            throws IOException {
+        canvas.setSize(CANVAS_WIDTH, CANVAS_HEIGHT);
+        BufferedImage image = new BufferedImage(CANVAS_WIDTH, CANVAS_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+
+        for (int run = 0; run < WARMUP_RUNS; run++) {
+            for (Frame frame : frames) {
+                render(canvas, frame, g);
+            }
+        }
+
+        long thread = Thread.currentThread().getId();
+        long[][] nanos = new long[frames.size()][runs];
+        long[] bytes = new long[frames.size()];
+        for (int run = 0; run < runs; run++) {
+            for (int f = 0; f < frames.size(); f++) {
+                long bytesBefore = THREADS.getThreadAllocatedBytes(thread);
+                long start = System.nanoTime();
+                render(canvas, frames.get(f), g);
+                nanos[f][run] = System.nanoTime() - start;
+                bytes[f] += THREADS.getThreadAllocatedBytes(thread) - bytesBefore;
+            }
+        }
+
+        // the measured runs leave the canvas at the end of the script, so replay it once for the images
+        int mismatches = 0;
+        for (int f = 0; f < frames.size(); f++) {
+            render(canvas, frames.get(f), g);
+            String file = String.format("%s-%02d-%s.png", name, f, frames.get(f).name);
+            if (dumpDir != null) {
+                ImageIO.write(image, "png", new File(dumpDir, file));
+            }
+            if (compareDir != null && !matches(image, new File(compareDir, file))) {
+                System.out.println("differs: " + file);
+                mismatches++;
+            }
+        }
+        g.dispose();
+
+        report(name, frames, nanos, bytes, runs);
+        return mismatches;
+    }
+
+    private static void render(GCanvas canvas, Frame frame, Graphics2D g) {
+        frame.step.run();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, CANVAS_WIDTH, CANVAS_HEIGHT);
+        canvas.paint(g);
+    }
+
+    private static boolean matches(BufferedImage image, File golden) throws IOException {
+        if (!golden.isFile()) return false;
+
+        BufferedImage expected = ImageIO.read(golden);
+        if (expected == null || expected.getWidth() != image.getWidth() || expected.getHeight() != image.getHeight()) {
+            return false;
+        }
+
+        int width = image.getWidth();
+        int[] row = new int[width];
+        int[] expectedRow = new int[width];
+        for (int y = 0; y < image.getHeight(); y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            expected.getRGB(0, y, width, 1, expectedRow, 0, width);
+            if (!Arrays.equals(row, expectedRow)) return false;
+        }
+
+        return true;
+    }
+
+    private static void report(String name, List<Frame> frames, long[][] nanos, long[] bytes, int runs) {
+        System.out.printf("%n%-22s %12s %12s %14s%n", name, "median us", "max us", "bytes/frame");
+
+        long total = 0;
+        for (int f = 0; f < frames.size(); f++) {
+            long[] times = nanos[f];
+            Arrays.sort(times);
+            for (long t : times) total += t;
+
+            System.out.printf("%-22s %12.1f %12.1f %14.1f%n", frames.get(f).name,
+                    times[runs / 2] / 1e3, times[runs - 1] / 1e3, (double) bytes[f] / runs);
+        }
+        System.out.printf("%-22s %12.1f  (mean per frame)%n", "all frames", total / 1e3 / ((long) runs * frames.size()));
+    }
+
+    private interface WrongGuess {
+        void note(char letter, int wrongGuessNum);
+    }
+
+    private static class Frame {
+        final String name;
+        final Runnable step;
+
+        Frame(String name, Runnable step) {
+            this.name = name;
+            this.step = step;
+        }
+    }
+}
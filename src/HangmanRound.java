@@ -0,0 +1,140 @@
+/*
+ * File: HangmanRound.java
+ * -----------------------
+ * This file keeps the state of one round: the secret word, which
+ * letters have been guessed and which positions are revealed.  One
+ * object is reused for every round, so evaluating a guess does not
+ * allocate anything; only getGuessedWord builds a String for display.
+ *
+ * Letters are kept as bits (bit 0 is 'A').  For every letter of the
+ * secret word there is a mask of the positions it appears at, so a
+ * guess is a couple of mask operations and the round is won once all
+ * the letters of the word are in the guessed mask.
+ */
+
+import java.util.Arrays;
+
+public class HangmanRound {
+    public static final int MAX_WORD_LENGTH = Long.SIZE;
+
+    /* Results of a guess */
+    public static final int CORRECT = 0;
+    public static final int INCORRECT = 1;
+    public static final int REPEATED = 2;  // a correct letter guessed again
+
+    private static final char HIDDEN = '-';
+
+    private final char[] secret = new char[MAX_WORD_LENGTH];
+    private final char[] revealed = new char[MAX_WORD_LENGTH];
+    private final long[] positionMasks = new long[HangmanWordIndex.ALPHABET_SIZE];
+    private int length;
+    private int letterMask;   // letters contained in the secret word
+    private int guessedMask;  // letters guessed so far, right or wrong
+
+/** Starts a new round with the given (uppercase) secret word. */
+    public void start(CharSequence word) {
+        if (word.length() > MAX_WORD_LENGTH) {
+            throw new IllegalArgumentException("Word is longer than " + MAX_WORD_LENGTH + " letters: " + word);
+        }
+
+        Arrays.fill(positionMasks, 0);
+        length = word.length();
+        letterMask = 0;
+        guessedMask = 0;
+
+        for (int pos = 0; pos < length; pos++) {
+            char letter = word.charAt(pos);
+            int bit = HangmanWordIndex.letterBit(letter);
+
+            secret[pos] = letter;
+            revealed[pos] = HIDDEN;
+            if (bit != 0) {
+                letterMask |= bit;
+                positionMasks[Integer.numberOfTrailingZeros(bit)] |= 1L << pos;
+            }
+        }
+    }
+
+/**
+ * Swaps the secret word for another one that agrees with every guess
+ * so far (the same positions for each guessed letter), keeping the
+ * guessed letters and what is revealed.  Used by a HangmanAdversary.
+ */
+    public void replaceWord(CharSequence word) {
+        int guessed = guessedMask;
+        start(word);
+        guessedMask = guessed;
+
+        for (int pos = 0; pos < length; pos++) {
+            if ((guessed & HangmanWordIndex.letterBit(secret[pos])) != 0) {
+                revealed[pos] = secret[pos];
+            }
+        }
+    }
+
+/**
+ * Applies a guess and returns CORRECT, INCORRECT or REPEATED.  The
+ * letter must already be uppercase.
+ */
+    public int guess(char letter) {
+        int bit = HangmanWordIndex.letterBit(letter);
+        if ((letterMask & bit) == 0) {
+            guessedMask |= bit;
+            return INCORRECT;
+        }
+
+        if ((guessedMask & bit) != 0) {
+            return REPEATED;
+        }
+
+        guessedMask |= bit;
+        long positions = positionMasks[Integer.numberOfTrailingZeros(bit)];
+        while (positions != 0) {
+            revealed[Long.numberOfTrailingZeros(positions)] = letter;
+            positions &= positions - 1;
+        }
+
+        return CORRECT;
+    }
+
+/** Returns true once every letter of the word has been guessed. */
+    public boolean isSolved() {
+        return (guessedMask & letterMask) == letterMask;
+    }
+
+/** Returns true if the letter has been guessed this round. */
+    public boolean isGuessed(char letter) {
+        return (guessedMask & HangmanWordIndex.letterBit(letter)) != 0;
+    }
+
+/** Returns the mask of positions at which the letter appears in the word. */
+    public long getPositions(char letter) {
+        int bit = HangmanWordIndex.letterBit(letter);
+        return bit == 0 ? 0 : positionMasks[Integer.numberOfTrailingZeros(bit)];
+    }
+
+/** Returns the mask of letters guessed so far. */
+    public int getGuessedMask() {
+        return guessedMask;
+    }
+
+/** Returns the length of the secret word. */
+    public int getLength() {
+        return length;
+    }
+
+/** Returns the revealed letter at a position, or '-' if it is still hidden. */
+    public char getRevealed(int pos) {
+        return revealed[pos];
+    }
+
+/** Returns the word as the player sees it, with hyphens for hidden letters. */
+    public String getGuessedWord() {
+        return new String(revealed, 0, length);
+    }
+
+/** Returns the secret word. */
+    public String getSecretWord() {
+        return new String(secret, 0, length);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * File: HangmanRoundClock.java
+ * ----------------------------
+ * This file contains the clock that ticks the timed rounds.  All rounds
+ * in the JVM share one daemon scheduler thread; each round gets a
+ * Timer handle it cancels when the round is over, so starting a round
+ * never creates a thread and a finished round never leaves one behind.
+ * The same thread also runs one-off delayed tasks.
+ *
+ * How late each tick runs against its schedule is recorded as the
+ * hangman_tick_jitter_seconds histogram.
+ */
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+public class HangmanRoundClock {
+    private static final long TICK_MILLIS = 1000;
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS);
+
+    private static final HangmanMetrics.Histogram TICK_JITTER =
+            HangmanMetrics.histogram("hangman_tick_jitter_seconds", "", "How late a round clock tick ran",
+                    HangmanMetrics.NANOS, HangmanMetrics.exponentialBounds(TimeUnit.MICROSECONDS.toNanos(10), 2, 18));
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "hangman-round-clock");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private HangmanRoundClock() {
+    }
+
+/**
+ * Runs the task once right away and then once a second until the
+ * returned timer is cancelled.  Tasks share one thread, so they must
+ * not block.
+ */
+    public static Timer start(Runnable tick) {
+        long start = System.nanoTime();
+        long[] ticks = { 0 };
+        return new Timer(SCHEDULER.scheduleAtFixedRate(() -> {
+            TICK_JITTER.record(Math.max(0, System.nanoTime() - (start + ticks[0]++ * TICK_NANOS)));
+            runTick(tick);
+        }, 0, TICK_MILLIS, TimeUnit.MILLISECONDS));
+    }
+
+/** Runs the task once after the given delay, on the clock thread. */
+    public static void runLater(Runnable task, long millis) {
+        SCHEDULER.schedule(() -> runTick(task), millis, TimeUnit.MILLISECONDS);
+    }
+
+    // an exception would silently stop the task from ever running again
+    private static void runTick(Runnable tick) {
+        try {
+            tick.run();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+/** Handle of one round's ticks. */
+    public static class Timer {
+        private final ScheduledFuture<?> future;
+
+        private Timer(ScheduledFuture<?> future) {
+            this.future = future;
+        }
+
+/** Stops the ticks; calling it more than once is harmless. */
+        public void cancel() {
+            future.cancel(false);
+        }
+    }
+}
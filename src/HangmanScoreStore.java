@@ -0,0 +1,480 @@
+/*
+ * File: HangmanScoreStore.java
+ * ----------------------------
+ * This file keeps every player's scores between runs: the best and the
+ * current streak of rounds won, wins, losses and the fastest solve for
+ * every word length.  Players are fixed-size records in a memory-mapped
+ * file, so an update is a few int writes into the mapping.
+ *
+ * The leaderboards (best streaks, and fastest solves per word length)
+ * are sorted top-K lists kept in memory.  Scores only ever improve, so
+ * an update just moves one player up a list, in O(K), and a leaderboard
+ * query reads K entries no matter how many players there are.  The
+ * lists and the name lookup are rebuilt from the file when it's opened.
+ *
+ * Updates are queued and applied in batches by a writer thread, which
+ * also forces the file to disk after each batch; the game thread only
+ * enqueues.  The file is locked while it is open, so two games can't
+ * write the same scores at once.
+ *
+ * File layout (big-endian):
+ *   header   "HSCO", version (int), player count (int), unused (int)
+ *   record   name (NAME_BYTES of UTF-8, zero padded), best streak,
+ *            streak, wins, losses, fastest solve in millis for word
+ *            lengths 1 to LENGTH_SLOTS (0 = none); all ints
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class HangmanScoreStore implements Closeable {
+    public static final int NAME_BYTES = 32;
+    public static final int LENGTH_SLOTS = 32;
+    public static final int TOP_K = 100;
+
+    private static final int MAGIC = 0x4853434F;  // "HSCO"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int COUNT = 8;
+
+    private static final int BEST_STREAK = NAME_BYTES;
+    private static final int STREAK = BEST_STREAK + 4;
+    private static final int WINS = STREAK + 4;
+    private static final int LOSSES = WINS + 4;
+    private static final int FASTEST = LOSSES + 4;
+    private static final int RECORD_SIZE = FASTEST + 4 * LENGTH_SLOTS;
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_BATCH = 4096;
+
+    // files open in this JVM; closing a second channel on one would drop its lock
+    private static final Set<Path> OPEN_PATHS = ConcurrentHashMap.newKeySet();
+
+    private final Path path;
+    private final FileChannel channel;
+    private final HangmanEventQueue<Update> updates = new HangmanEventQueue<>();
+    private final Thread writer;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    // guarded by this
+    private MappedByteBuffer map;
+    private int capacity;
+    private int count;
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final TopList streaks = new TopList(true);
+    private final TopList[] fastest = new TopList[LENGTH_SLOTS + 1];
+
+    private HangmanScoreStore(Path path, FileChannel channel) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        for (int len = 1; len <= LENGTH_SLOTS; len++) {
+            fastest[len] = new TopList(false);
+        }
+
+        if (channel.size() == 0) {
+            remap(INITIAL_CAPACITY);
+            map.putInt(0, MAGIC).putInt(4, VERSION).putInt(COUNT, 0);
+        } else {
+            if (channel.size() < HEADER_SIZE) throw new IOException("not a hangman score file");
+            remap((int) ((channel.size() - HEADER_SIZE) / RECORD_SIZE));
+            if (map.getInt(0) != MAGIC) throw new IOException("not a hangman score file");
+            if (map.getInt(4) != VERSION) throw new IOException("unsupported score file version");
+            count = map.getInt(COUNT);
+            if (count < 0 || count > capacity) throw new IOException("corrupt score file");
+        }
+        rebuildIndexes();
+
+        writer = new Thread(this::writeLoop, "hangman-scores");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+/** Opens (or creates) a score file and locks it; fails if another program has it open. */
+    public static HangmanScoreStore open(Path path) throws IOException {
+        Path key = path.toAbsolutePath().normalize();
+        if (!OPEN_PATHS.add(key)) throw new IOException("the file is already open in this program");
+
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            lock(channel);
+            return new HangmanScoreStore(key, channel);
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) channel.close();
+            OPEN_PATHS.remove(key);
+            throw e;
+        }
+    }
+
+/**
+ * Opens the file named by the hangman.scores system property
+ * (HangmanScores.dat by default) and closes it at exit, or returns null
+ * if it can't be opened.
+ */
+    public static HangmanScoreStore fromProperties() {
+        String path = System.getProperty("hangman.scores", "./HangmanScores.dat");
+        try {
+            HangmanScoreStore store = open(Paths.get(path));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    store.close();
+                } catch (IOException e) {
+                    // nothing left to do at exit
+                }
+            }));
+            return store;
+        } catch (IOException e) {
+            System.err.println("cannot open scores " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+/** Returns the name to record scores under: -Dhangman.player, or the user's login name, cut to fit. */
+    public static String getDefaultPlayer() {
+        String player = System.getProperty("hangman.player", System.getProperty("user.name", "player"));
+        while (player.getBytes(StandardCharsets.UTF_8).length > NAME_BYTES) {
+            player = player.substring(0, player.length() - 1);
+        }
+
+        return player.isEmpty() ? "player" : player;
+    }
+
+/** Queues a won round; the solve time counts for the word's length.  Never waits for the disk. */
+    public void recordWin(String player, int wordLength, long solveMillis) {
+        updates.offer(new Update(checkName(player), true, wordLength, (int) Math.min(Integer.MAX_VALUE, solveMillis)));
+    }
+
+/** Queues a lost round, which ends the player's streak. */
+    public void recordLoss(String player) {
+        updates.offer(new Update(checkName(player), false, 0, 0));
+    }
+
+/** Waits until every queued update is applied and on disk. */
+    public void flush() {
+        if (closed.get()) return;
+
+        Update marker = new Update(null, false, 0, 0);
+        marker.flushed = new CountDownLatch(1);
+        updates.offer(marker);
+        try {
+            marker.flushed.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+/** Flushes and closes the file, releasing its lock; does nothing if it is already closed. */
+    public void close() throws IOException {
+        if (closed.get()) return;
+
+        flush();
+        if (!closed.compareAndSet(false, true)) return;
+        writer.interrupt();
+        try {
+            channel.close();
+        } finally {
+            OPEN_PATHS.remove(path);
+        }
+    }
+
+/** Returns a player's scores, or null for a player without any. */
+    public synchronized PlayerScores getPlayer(String player) {
+        Integer slot = slots.get(player);
+        return slot == null ? null : new PlayerScores(slot);
+    }
+
+/** Returns the number of players with scores. */
+    public synchronized int getPlayerCount() {
+        return count;
+    }
+
+/** Returns up to k players with the best streaks, best first. */
+    public synchronized List<Entry> getTopStreaks(int k) {
+        return streaks.entries(k);
+    }
+
+/** Returns up to k players with the fastest solves (in millis) of words of the given length, fastest first. */
+    public synchronized List<Entry> getFastestSolves(int wordLength, int k) {
+        if (wordLength < 1 || wordLength > LENGTH_SLOTS) return new ArrayList<>();
+
+        return fastest[wordLength].entries(k);
+    }
+
+    // holds the file for as long as the channel is open
+    private static void lock(FileChannel channel) throws IOException {
+        try {
+            if (channel.tryLock() == null) throw new IOException("the file is in use by another program");
+        } catch (OverlappingFileLockException e) {
+            throw new IOException("the file is already open in this program");
+        }
+    }
+
+    private static String checkName(String player) {
+        int length = player.getBytes(StandardCharsets.UTF_8).length;
+        if (length == 0 || length > NAME_BYTES) {
+            throw new IllegalArgumentException("player name must be 1 to " + NAME_BYTES + " bytes: " + player);
+        }
+
+        return player;
+    }
+
+    /*
+     *  ~~ WRITER THREAD ~~
+     *
+     *  Takes whatever is queued (up to MAX_BATCH), applies it under the
+     *  lock and forces the mapping outside of it, so readers only wait
+     *  for the in-memory part.
+     */
+    private void writeLoop() {
+        List<Update> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(updates.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            Update update;
+            while (batch.size() < MAX_BATCH && (update = updates.poll()) != null) {
+                batch.add(update);
+            }
+
+            MappedByteBuffer written;
+            synchronized (this) {
+                for (Update u : batch) {
+                    if (u.player != null) {
+                        try {
+                            apply(u);
+                        } catch (IOException e) {
+                            System.err.println("cannot record score for " + u.player + ": " + e.getMessage());
+                        }
+                    }
+                }
+                written = map;
+            }
+            written.force();
+
+            for (Update u : batch) {
+                if (u.flushed != null) u.flushed.countDown();
+            }
+            batch.clear();
+        }
+    }
+
+    private void apply(Update update) throws IOException {
+        int slot = slotOf(update.player);
+        int base = offset(slot);
+
+        if (update.won) {
+            int streak = map.getInt(base + STREAK) + 1;
+            map.putInt(base + STREAK, streak);
+            map.putInt(base + WINS, map.getInt(base + WINS) + 1);
+            if (streak > map.getInt(base + BEST_STREAK)) {
+                map.putInt(base + BEST_STREAK, streak);
+                streaks.offer(slot, streak);
+            }
+
+            int len = update.wordLength;
+            if (len >= 1 && len <= LENGTH_SLOTS) {
+                int pos = base + FASTEST + 4 * (len - 1);
+                int best = map.getInt(pos);
+                if (best == 0 || update.solveMillis < best) {
+                    int millis = Math.max(1, update.solveMillis);
+                    map.putInt(pos, millis);
+                    fastest[len].offer(slot, millis);
+                }
+            }
+        } else {
+            map.putInt(base + STREAK, 0);
+            map.putInt(base + LOSSES, map.getInt(base + LOSSES) + 1);
+        }
+    }
+
+    // finds the player's record, adding one (and growing the file) for a new player
+    private int slotOf(String player) throws IOException {
+        Integer slot = slots.get(player);
+        if (slot != null) return slot;
+
+        if (count == capacity) {
+            remap(capacity * 2);
+        }
+
+        int newSlot = count++;
+        byte[] name = player.getBytes(StandardCharsets.UTF_8);
+        int base = offset(newSlot);
+        for (int i = 0; i < RECORD_SIZE; i++) map.put(base + i, (byte) 0);
+        for (int i = 0; i < name.length; i++) map.put(base + i, name[i]);
+        map.putInt(COUNT, count);
+
+        slots.put(player, newSlot);
+        return newSlot;
+    }
+
+    private void remap(int newCapacity) throws IOException {
+        capacity = Math.max(newCapacity, INITIAL_CAPACITY);
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * RECORD_SIZE);
+    }
+
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    private String nameAt(int slot) {
+        int base = offset(slot);
+        int length = 0;
+        while (length < NAME_BYTES && map.get(base + length) != 0) length++;
+
+        byte[] name = new byte[length];
+        for (int i = 0; i < length; i++) name[i] = map.get(base + i);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    // one pass over all records, at open
+    private void rebuildIndexes() {
+        for (int slot = 0; slot < count; slot++) {
+            int base = offset(slot);
+            slots.put(nameAt(slot), slot);
+
+            int best = map.getInt(base + BEST_STREAK);
+            if (best > 0) streaks.offer(slot, best);
+            for (int len = 1; len <= LENGTH_SLOTS; len++) {
+                int millis = map.getInt(base + FASTEST + 4 * (len - 1));
+                if (millis > 0) fastest[len].offer(slot, millis);
+            }
+        }
+    }
+
+    /*
+     * The TOP_K best (slot, value) pairs, sorted best first.  A player
+     * is in a list at most once; since values only improve, an offer
+     * can only move a player up, so one pass shifting the entries in
+     * between is enough.
+     */
+    private class TopList {
+        private final boolean higherIsBetter;
+        private final int[] entrySlots = new int[TOP_K];
+        private final int[] values = new int[TOP_K];
+        private int size;
+
+        TopList(boolean higherIsBetter) {
+            this.higherIsBetter = higherIsBetter;
+        }
+
+        void offer(int slot, int value) {
+            // a player already listed can't fall below the last entry, as values only improve
+            if (size == TOP_K && !isBetter(value, values[TOP_K - 1])) return;
+
+            int from = size;
+            for (int i = 0; i < size; i++) {
+                if (entrySlots[i] == slot) {
+                    from = i;
+                    break;
+                }
+            }
+            if (from == size && size == TOP_K) {
+                from = TOP_K - 1;  // the last one drops out
+            } else if (from == size) {
+                size++;
+            }
+
+            int to = from;
+            while (to > 0 && isBetter(value, values[to - 1])) {
+                entrySlots[to] = entrySlots[to - 1];
+                values[to] = values[to - 1];
+                to--;
+            }
+            entrySlots[to] = slot;
+            values[to] = value;
+        }
+
+        private boolean isBetter(int a, int b) {
+            return higherIsBetter ? a > b : a < b;
+        }
+
+        List<Entry> entries(int k) {
+            List<Entry> entries = new ArrayList<>();
+            for (int i = 0; i < Math.min(k, size); i++) {
+                entries.add(new Entry(nameAt(entrySlots[i]), values[i]));
+            }
+
+            return entries;
+        }
+    }
+
+/** A player and a score on a leaderboard. */
+    public static class Entry {
+        public final String player;
+        public final int value;
+
+        Entry(String player, int value) {
+            this.player = player;
+            this.value = value;
+        }
+
+        public String toString() {
+            return player + " " + value;
+        }
+    }
+
+/** A copy of one player's scores. */
+    public class PlayerScores {
+        public final String player;
+        public final int bestStreak;
+        public final int streak;
+        public final int wins;
+        public final int losses;
+        private final int[] fastestMillis = new int[LENGTH_SLOTS];
+
+        private PlayerScores(int slot) {
+            int base = offset(slot);
+            player = nameAt(slot);
+            bestStreak = map.getInt(base + BEST_STREAK);
+            streak = map.getInt(base + STREAK);
+            wins = map.getInt(base + WINS);
+            losses = map.getInt(base + LOSSES);
+            for (int i = 0; i < LENGTH_SLOTS; i++) {
+                fastestMillis[i] = map.getInt(base + FASTEST + 4 * i);
+            }
+        }
+
+/** Returns the fastest solve of a word of the given length in millis, or 0 if there is none. */
+        public int getFastestMillis(int wordLength) {
+            return wordLength < 1 || wordLength > LENGTH_SLOTS ? 0 : fastestMillis[wordLength - 1];
+        }
+
+        public String toString() {
+            return player + ": best streak " + bestStreak + ", streak " + streak + ", " + wins + " won, " + losses + " lost";
+        }
+    }
+
+    private static class Update {
+        final String player;   // null for a flush marker
+        final boolean won;
+        final int wordLength;
+        final int solveMillis;
+        CountDownLatch flushed;  // set on flush markers
+
+        Update(String player, boolean won, int wordLength, int solveMillis) {
+            this.player = player;
+            this.won = won;
+            this.wordLength = wordLength;
+            this.solveMillis = solveMillis;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * File: HangmanServer.java
+ * ------------------------
+ * This file hosts many independent Hangman games in one JVM.  Every
+ * TCP connection becomes a HangmanSession running on its own virtual
+ * thread (or a pooled platform thread on JVMs without virtual threads),
+ * and all sessions share one lexicon.  See HangmanSession for the
+ * protocol; HangmanLoadGenerator drives it for load tests.
+ *
+ * Usage: java HangmanServer [port] [lexicon path]
+ */
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class HangmanServer {
+    public static final int DEFAULT_PORT = 4444;
+    private static final String DEFAULT_PATH = "./HangmanLexicon.txt";
+    private static final int ACCEPT_BACKLOG = 4096;
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        String path = args.length > 1 ? args[1] : DEFAULT_PATH;
+
+        HangmanLexicon lexicon = HangmanLexicon.forPath(path);
+        lexicon.getIndex();  // build it before the first player arrives
+        HangmanMetrics.exportFromProperties();
+        HangmanRandom seeds = HangmanRandom.fromProperties();  // one stream split off per session
+
+        ExecutorService sessions = newThreadPerTaskExecutor();
+        try (ServerSocket server = new ServerSocket(port, ACCEPT_BACKLOG)) {
+            System.out.println("Serving " + lexicon.getWordCount() + " words on port " + port);
+            while (true) {
+                Socket socket = server.accept();
+                sessions.execute(new HangmanSession(socket, lexicon, seeds.split()));
+            }
+        } finally {
+            sessions.shutdownNow();
+        }
+    }
+
+/**
+ * Returns an executor that runs every task on a new virtual thread,
+ * falling back to a cached pool of platform threads before Java 21.
+ */
+    public static ExecutorService newThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
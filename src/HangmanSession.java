@@ -0,0 +1,181 @@
+/*
+ * File: HangmanSession.java
+ * -------------------------
+ * This file plays timed rounds with one connected player over a
+ * line-based protocol.  Every session has its own engine, round state
+ * and random stream (split off the server's HangmanRandom in the order
+ * players connect, so it can be reproduced from the server's seed); the
+ * lexicon and its index are shared read-only by all of them.
+ *
+ * Server to client:
+ *   ROUND <round> <word pattern> <guesses left> <seconds left>
+ *   CORRECT <word pattern>
+ *   WRONG <letter> <guesses left>
+ *   REPEAT <letter>
+ *   TICK <seconds left>
+ *   WIN <word>   /   LOSE <word>   /   TIMEOUT <word>
+ *   ERROR <message>
+ *
+ * Client to server: one letter per line, or QUIT.  A new round starts
+ * as soon as the previous one is over.
+ *
+ * The session thread does all the work: it reads with a timeout of one
+ * tick, so the round clock is checked on the same thread that handles
+ * guesses and nothing else ever writes to the socket.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HangmanSession implements Runnable, HangmanListener {
+    private static final int TICK_MILLIS = 1000;
+    private static final int MAX_LINE_LENGTH = 64;
+    private static final int DIFFICULTY_BANDS = 10;
+
+    private static final AtomicInteger ACTIVE = new AtomicInteger();
+    static {
+        HangmanMetrics.gauge("hangman_sessions_active", "Players connected", ACTIVE::get);
+    }
+
+    private final Socket socket;
+    private final HangmanLexicon lexicon;
+    private final HangmanRandom random;
+    private final HangmanEngine engine = new HangmanEngine(this, true);
+    private final byte[] lineBuffer = new byte[MAX_LINE_LENGTH];
+    private int lineLength;
+
+    private PrintWriter out;
+    private long nextTick;
+
+    public HangmanSession(Socket socket, HangmanLexicon lexicon, HangmanRandom random) {
+        this.socket = socket;
+        this.lexicon = lexicon;
+        this.random = random;
+    }
+
+    public void run() {
+        ACTIVE.incrementAndGet();
+        try (Socket s = socket) {
+            s.setSoTimeout(TICK_MILLIS);
+            s.setTcpNoDelay(true);
+            InputStream in = new BufferedInputStream(s.getInputStream());
+            out = new PrintWriter(new OutputStreamWriter(new BufferedOutputStream(s.getOutputStream()),
+                    StandardCharsets.US_ASCII));
+
+            beginRound();
+            out.flush();
+
+            String line;
+            while ((line = readLine(in)) != null) {
+                if (!line.isEmpty() && !handleLine(line.trim())) break;
+
+                checkClock();
+                out.flush();
+            }
+        } catch (IOException e) {
+            // the player went away; nothing to clean up besides the socket
+        } finally {
+            ACTIVE.decrementAndGet();
+        }
+    }
+
+    // returns false when the player wants to leave
+    private boolean handleLine(String line) {
+        if (line.equalsIgnoreCase("QUIT")) {
+            return false;
+        }
+
+        char letter = line.length() == 1 ? Character.toUpperCase(line.charAt(0)) : 0;
+        if (letter < 'A' || letter > 'Z') {
+            out.println("ERROR enter a single letter");
+            return true;
+        }
+
+        if (engine.guess(letter) == HangmanRound.REPEATED) {
+            out.println("REPEAT " + letter);
+        }
+        if (!engine.isRoundRunning()) {
+            beginRound();
+        }
+
+        return true;
+    }
+
+    // runs the round clock once a tick has passed since the last check
+    private void checkClock() {
+        long now = System.nanoTime();
+        if (now - nextTick < 0) return;
+
+        nextTick = now + TICK_MILLIS * 1000000L;
+        engine.tick();
+        if (!engine.isRoundRunning()) {
+            beginRound();
+        }
+    }
+
+    private void beginRound() {
+        int idx = lexicon.getIndex().pickByDifficultyBand(random,
+                engine.getRoundNum(), DIFFICULTY_BANDS);
+        engine.startRound(lexicon.getWord(idx));
+        nextTick = System.nanoTime() + TICK_MILLIS * 1000000L;
+    }
+
+    /*
+     * Reads one line, treating a read timeout as an empty line so the
+     * caller gets to check the clock.  Bytes of a half-received line
+     * are kept across timeouts.  Returns null at end of stream.
+     */
+    private String readLine(InputStream in) throws IOException {
+        while (true) {
+            int b;
+            try {
+                b = in.read();
+            } catch (SocketTimeoutException e) {
+                return "";
+            }
+
+            if (b < 0) return null;
+            if (b == '\n') {
+                String line = new String(lineBuffer, 0, lineLength, StandardCharsets.US_ASCII);
+                lineLength = 0;
+                return line;
+            }
+            if (b != '\r' && lineLength < MAX_LINE_LENGTH) {
+                lineBuffer[lineLength++] = (byte) b;
+            }
+        }
+    }
+
+    public void roundStarted(HangmanEngine engine) {
+        out.println("ROUND " + engine.getRoundNum() + " " + engine.getGuessedWord() + " "
+                + engine.getAttemptCount() + " " + engine.getTimeLeft());
+    }
+
+    public void correctGuess(HangmanEngine engine, char letter) {
+        out.println("CORRECT " + engine.getGuessedWord());
+    }
+
+    public void incorrectGuess(HangmanEngine engine, char letter, int wrongGuessNum) {
+        out.println("WRONG " + letter + " " + engine.getAttemptCount());
+    }
+
+    public void timerTicked(HangmanEngine engine, int timeLeft, int roundTime) {
+        out.println("TICK " + timeLeft);
+    }
+
+    public void roundWon(HangmanEngine engine) {
+        out.println("WIN " + engine.getCurrentWord());
+    }
+
+    public void roundLost(HangmanEngine engine, boolean timedOut) {
+        out.println((timedOut ? "TIMEOUT " : "LOSE ") + engine.getCurrentWord());
+    }
+}
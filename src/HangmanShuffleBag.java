@@ -0,0 +1,52 @@
+/*
+ * File: HangmanShuffleBag.java
+ * ----------------------------
+ * This file deals out the numbers of a range in random order without
+ * repeating any until all of them have come up, like drawing from a
+ * bag; then the bag is refilled.  It is a Fisher-Yates shuffle done
+ * one step per draw, so a draw is O(1) and the bag never has to be
+ * shuffled up front.
+ *
+ * A bag is used by one thread at a time, with that thread's generator.
+ */
+
+import java.util.Random;
+
+public class HangmanShuffleBag {
+    private final int from;
+    private final int[] values;
+    private int remaining;
+
+/** Creates a bag of the numbers from (inclusive) to to (exclusive). */
+    public HangmanShuffleBag(int from, int to) {
+        this.from = from;
+        this.values = new int[Math.max(0, to - from)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i;
+        }
+        remaining = values.length;
+    }
+
+/** Returns how many numbers the bag holds when full. */
+    public int size() {
+        return values.length;
+    }
+
+/** Draws the next number, refilling the bag first if it is empty. */
+    public int next(Random rgen) {
+        if (values.length == 0) {
+            throw new IllegalStateException("the bag is empty");
+        }
+        if (remaining == 0) {
+            remaining = values.length;
+        }
+
+        // swap a random one of the numbers left to the end of the ones left
+        int pick = rgen.nextInt(remaining);
+        int value = values[pick];
+        values[pick] = values[--remaining];
+        values[remaining] = value;
+
+        return from + value;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * File: HangmanSimulator.java
+ * ---------------------------
+ * This file plays every word of a lexicon (or a random sample of it)
+ * against a guessing strategy on all cores and reports the win rate,
+ * the mean number of wrong guesses and how many words per second were
+ * played.  Rounds go through HangmanEngine, so the results follow the
+ * exact rules of the real game.
+ *
+ * Usage: java HangmanSimulator [lexicon path] [sample size] [seed]
+ */
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+public class HangmanSimulator {
+    private static final String DEFAULT_PATH = "./HangmanLexicon.txt";
+    private static final int CHUNK_SIZE = 256;  // words per parallel task
+
+    public static void main(String[] args) throws IOException {
+        String path = args.length > 0 ? args[0] : DEFAULT_PATH;
+        int sampleSize = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+
+        HangmanWordStore store = HangmanWordStore.open(path);
+        HangmanCandidateIndex candidates = new HangmanCandidateIndex(store, new HangmanWordIndex(store));
+        int[] words = pickWords(store.getWordCount(), sampleSize, seed);
+
+        System.out.println("Playing " + words.length + " of " + store.getWordCount() + " words from " + path
+                + " on " + Runtime.getRuntime().availableProcessors() + " cores");
+
+        long start = System.nanoTime();
+        Stats stats = simulate(store, words, () -> new HangmanFrequencyStrategy(candidates));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("win rate            %6.2f %%%n", 100.0 * stats.wins / stats.games);
+        System.out.printf("mean wrong guesses  %6.3f of %d%n",
+                (double) stats.wrongGuesses / stats.games, HangmanEngine.GUESS_COUNT);
+        System.out.printf("words/second        %8.0f  (%.2f s)%n", stats.games / seconds, seconds);
+    }
+
+/** Plays the given words on the common fork/join pool, one strategy per task. */
+    public static Stats simulate(HangmanWordStore store, int[] words, Supplier<HangmanStrategy> strategies) {
+        int chunks = (words.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        return IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> playChunk(store, words, chunk * CHUNK_SIZE,
+                        Math.min(words.length, (chunk + 1) * CHUNK_SIZE), strategies.get()))
+                .reduce(new Stats(), Stats::merge);
+    }
+
+    private static Stats playChunk(HangmanWordStore store, int[] words, int from, int to, HangmanStrategy strategy) {
+        Stats stats = new Stats();
+        HangmanEngine engine = new HangmanEngine(new HangmanListener() {});
+        engine.setRecordingMetrics(false);  // simulated games aren't played by anyone
+
+        for (int i = from; i < to; i++) {
+            engine.startRound(store.getWord(words[i]));
+            HangmanRound round = engine.getRound();
+            strategy.roundStarted(round);
+
+            while (engine.isRoundRunning()) {
+                engine.guess(strategy.nextGuess(round));
+            }
+
+            stats.games++;
+            if (round.isSolved()) stats.wins++;
+            stats.wrongGuesses += HangmanEngine.GUESS_COUNT - engine.getAttemptCount();
+        }
+
+        return stats;
+    }
+
+    // all word indices, or a random sample of them when sampleSize is set
+    private static int[] pickWords(int wordCount, int sampleSize, long seed) {
+        int[] words = new int[wordCount];
+        for (int i = 0; i < wordCount; i++) words[i] = i;
+        if (sampleSize <= 0 || sampleSize >= wordCount) return words;
+
+        Random rgen = new Random(seed);
+        for (int i = 0; i < sampleSize; i++) {
+            int j = i + rgen.nextInt(wordCount - i);
+            int tmp = words[i];
+            words[i] = words[j];
+            words[j] = tmp;
+        }
+
+        return Arrays.copyOf(words, sampleSize);
+    }
+
+/** Totals of a simulation run. */
+    public static class Stats {
+        public long games;
+        public long wins;
+        public long wrongGuesses;
+
+        Stats merge(Stats other) {
+            Stats sum = new Stats();
+            sum.games = games + other.games;
+            sum.wins = wins + other.wins;
+            sum.wrongGuesses = wrongGuesses + other.wrongGuesses;
+
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * File: HangmanSpriteCache.java
+ * -----------------------------
+ * This file pre-renders the hanged man.  There are only GUESS_COUNT + 1
+ * states of the figure (nothing, head, head and body, ... whole man),
+ * so each one is drawn once into an offscreen image and a wrong guess
+ * just swaps which image is shown.
+ *
+ * The figure is drawn relative to its own bounding box, so the images
+ * are the same for every canvas size: they are rendered once, and
+ * only where they go on the canvas depends on its size.
+ */
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+public class HangmanSpriteCache {
+    public static final int STAGE_COUNT = HangmanEngine.GUESS_COUNT + 1;
+
+    private HangmanSpriteCache() {
+    }
+
+    // rendered the first time a canvas asks for frames
+    private static class Stages {
+        static final BufferedImage[] IMAGES = new BufferedImage[STAGE_COUNT];
+
+        static {
+            for (int stage = 0; stage < STAGE_COUNT; stage++) {
+                IMAGES[stage] = renderStage(stage, FIGURE_HALF_WIDTH, ARM_OFFSET_FROM_HEAD + 2 * HEAD_RADIUS);
+            }
+        }
+    }
+
+/** Returns the figure frames placed for a canvas of the given size; the images are shared by all sizes. */
+    public static Frames getFrames(int canvasWidth, int canvasHeight) {
+        return new Frames(canvasWidth, canvasHeight);
+    }
+
+/** The rendered figure states and where they go on a canvas of one size. */
+    public static class Frames {
+        private final int x;
+        private final int y;
+
+        private Frames(int canvasWidth, int canvasHeight) {
+            x = canvasWidth / 2 - FIGURE_HALF_WIDTH;
+            y = canvasHeight / 2 - ARM_OFFSET_FROM_HEAD - 2 * HEAD_RADIUS;
+        }
+
+/** Returns the image of the figure after the given number of wrong guesses. */
+        public BufferedImage get(int stage) {
+            return Stages.IMAGES[Math.max(0, Math.min(stage, STAGE_COUNT - 1))];
+        }
+
+/** Returns the canvas x coordinate where the frames go. */
+        public int getX() {
+            return x;
+        }
+
+/** Returns the canvas y coordinate where the frames go. */
+        public int getY() {
+            return y;
+        }
+    }
+
+    // draws every body part up to the stage, with the figure centre at (centerX, centerY)
+    private static BufferedImage renderStage(int stage, int centerX, int centerY) {
+        BufferedImage image = new BufferedImage(FIGURE_WIDTH, FIGURE_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.BLACK);
+        g.setStroke(new BasicStroke(1));
+
+        int bodyStartY = centerY - ARM_OFFSET_FROM_HEAD;
+        int bodyEndY = bodyStartY + BODY_LENGTH;
+        for (int num = 1; num <= stage; num++) {
+            drawBodyPart(g, num, centerX, centerY, bodyStartY, bodyEndY);
+        }
+
+        g.dispose();
+        return image;
+    }
+
+    // draw a body part according to the number of wrong guesses
+    private static void drawBodyPart(Graphics2D g, int num, int centerX, int centerY, int bodyStartY, int bodyEndY) {
+        switch (num) {
+        case 1:
+            int headDiameter = 2 * HEAD_RADIUS;
+            g.drawOval(centerX - HEAD_RADIUS, centerY - ARM_OFFSET_FROM_HEAD - headDiameter, headDiameter, headDiameter);
+            break;
+        case 2:
+            g.drawLine(centerX, bodyStartY, centerX, bodyEndY);
+            break;
+        case 3:
+            drawArm(g, centerX, centerY, centerX - UPPER_ARM_LENGTH);
+            break;
+        case 4:
+            drawArm(g, centerX, centerY, centerX + UPPER_ARM_LENGTH);
+            break;
+        case 5:
+            drawLeg(g, centerX, bodyEndY, centerX - HIP_WIDTH);
+            break;
+        case 6:
+            drawLeg(g, centerX, bodyEndY, centerX + HIP_WIDTH);
+            break;
+        case 7:
+            drawFoot(g, bodyEndY, centerX - HIP_WIDTH - FOOT_LENGTH);
+            break;
+        case 8:
+            drawFoot(g, bodyEndY, centerX + HIP_WIDTH);
+            break;
+        }
+    }
+
+    private static void drawArm(Graphics2D g, int centerX, int centerY, int handX) {
+        g.drawLine(handX, centerY, centerX, centerY);
+        g.drawLine(handX, centerY, handX, centerY + LOWER_ARM_LENGTH);
+    }
+
+    private static void drawLeg(Graphics2D g, int centerX, int bodyEndY, int hipX) {
+        g.drawLine(hipX, bodyEndY, centerX, bodyEndY);
+        g.drawLine(hipX, bodyEndY, hipX, bodyEndY + LEG_LENGTH);
+    }
+
+    private static void drawFoot(Graphics2D g, int bodyEndY, int startingX) {
+        int footY = bodyEndY + LEG_LENGTH;
+        g.drawLine(startingX, footY, startingX + FOOT_LENGTH, footY);
+    }
+
+/* Constants for the figure (in pixels); HEAD_RADIUS and ARM_OFFSET_FROM_HEAD match the canvases */
+	private static final int HEAD_RADIUS = 36;
+	private static final int BODY_LENGTH = 144;
+	private static final int ARM_OFFSET_FROM_HEAD = 28;
+	private static final int UPPER_ARM_LENGTH = 72;
+	private static final int LOWER_ARM_LENGTH = 44;
+	private static final int HIP_WIDTH = 36;
+	private static final int LEG_LENGTH = 108;
+	private static final int FOOT_LENGTH = 28;
+
+    private static final int FIGURE_HALF_WIDTH = Math.max(UPPER_ARM_LENGTH, HIP_WIDTH + FOOT_LENGTH);
+    private static final int FIGURE_WIDTH = 2 * FIGURE_HALF_WIDTH + 1;
+    private static final int FIGURE_HEIGHT = 2 * HEAD_RADIUS + BODY_LENGTH + LEG_LENGTH + 1;
+}
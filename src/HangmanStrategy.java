@@ -0,0 +1,16 @@
+/*
+ * File: HangmanStrategy.java
+ * --------------------------
+ * This file declares a guessing strategy that plays rounds on its own,
+ * used by HangmanSimulator.  A strategy keeps per-round state, so each
+ * thread needs its own instance.
+ */
+
+public interface HangmanStrategy {
+
+/** Called when a round starts, before the first guess. */
+    void roundStarted(HangmanRound round);
+
+/** Returns the next uppercase letter to guess, one not guessed yet this round. */
+    char nextGuess(HangmanRound round);
+}
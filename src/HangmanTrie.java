@@ -0,0 +1,396 @@
+/*
+ * File: HangmanTrie.java
+ * ----------------------
+ * This file holds any number of named word lists in one minimal
+ * acyclic word automaton (a DAWG): a trie whose identical subtrees are
+ * stored once.  Within a list, words share their prefixes as in any
+ * trie and their suffixes through the shared subtrees; between lists,
+ * every subtree that accepts the same endings is shared as well, so a
+ * theme list that is mostly part of the main lexicon costs little more
+ * than its own top levels.
+ *
+ * Every node knows how many words it leads to, which makes the
+ * automaton indexable: getWord(i) walks down skipping whole subtrees
+ * by their counts (select) and indexOf sums the counts it skips
+ * (rank), both in O(length * 26).  Words of a list are numbered in
+ * alphabetical order.
+ *
+ * Nodes and edges live in flat int arrays: the edges of node n are
+ * edges[firstEdge[n] .. firstEdge[n + 1]), each one the target node
+ * shifted left by 5 with the letter (0 is 'A') in the low bits, sorted
+ * by letter.  A node's word count includes itself when it is final.
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class HangmanTrie {
+    private static final int LETTER_BITS = 5;
+    private static final int LETTER_MASK = (1 << LETTER_BITS) - 1;
+    private static final char ANY_LETTER = '-';
+
+    private final int[] firstEdge;   // node count + 1 entries
+    private final int[] edges;
+    private final int[] wordCounts;  // words accepted from each node
+    private final long[] finals;     // bit set of final nodes
+    private final Map<String, WordList> lists;
+
+    private HangmanTrie(Builder builder) {
+        int nodeCount = builder.nodeCount;
+        firstEdge = Arrays.copyOf(builder.firstEdge, nodeCount + 1);
+        edges = Arrays.copyOf(builder.edges, builder.edgeCount);
+        wordCounts = Arrays.copyOf(builder.wordCounts, nodeCount);
+        finals = Arrays.copyOf(builder.finals, (nodeCount + 63) >>> 6);
+
+        lists = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> root : builder.roots.entrySet()) {
+            lists.put(root.getKey(), new WordList(root.getKey(), root.getValue()));
+        }
+    }
+
+/** Loads each lexicon file (or its precompiled image) as a list named by its path. */
+    public static HangmanTrie load(String... paths) throws IOException {
+        Builder builder = new Builder();
+        for (String path : paths) {
+            builder.add(path, HangmanWordStore.open(path));
+        }
+
+        return builder.build();
+    }
+
+/** Returns the list with the given name, or null if there is none. */
+    public WordList getList(String name) {
+        return lists.get(name);
+    }
+
+/** Returns the names of the lists, in the order they were added. */
+    public List<String> getListNames() {
+        return new ArrayList<>(lists.keySet());
+    }
+
+/** Returns the number of distinct nodes shared by all the lists. */
+    public int getNodeCount() {
+        return wordCounts.length;
+    }
+
+/** Returns the number of edges shared by all the lists. */
+    public int getEdgeCount() {
+        return edges.length;
+    }
+
+    private boolean isFinal(int node) {
+        return (finals[node >>> 6] & (1L << node)) != 0;
+    }
+
+    // the node reached from node by the letter, or -1
+    private int child(int node, int letter) {
+        for (int e = firstEdge[node], end = firstEdge[node + 1]; e < end; e++) {
+            int label = edges[e] & LETTER_MASK;
+            if (label == letter) return edges[e] >>> LETTER_BITS;
+            if (label > letter) break;
+        }
+
+        return -1;
+    }
+
+    private static int letterOf(char ch) {
+        int letter = Character.toUpperCase(ch) - 'A';
+        return letter >= 0 && letter < HangmanWordIndex.ALPHABET_SIZE ? letter : -1;
+    }
+
+/**
+ * One named word list: a root node of the shared automaton.  Lists are
+ * immutable and may be used from any number of threads.
+ */
+    public class WordList {
+        private final String name;
+        private final int root;
+
+        private WordList(String name, int root) {
+            this.name = name;
+            this.root = root;
+        }
+
+/** Returns the name the list was added under. */
+        public String getName() {
+            return name;
+        }
+
+/** Returns the number of words in the list. */
+        public int getWordCount() {
+            return root < 0 ? 0 : wordCounts[root];
+        }
+
+/** Returns the word at the specified index, in alphabetical order (select). */
+        public String getWord(int index) {
+            if (index < 0 || index >= getWordCount()) {
+                throw new IndexOutOfBoundsException("word " + index + " of " + getWordCount());
+            }
+
+            StringBuilder word = new StringBuilder();
+            int node = root;
+            while (true) {
+                if (isFinal(node)) {
+                    if (index == 0) return word.toString();
+                    index--;
+                }
+
+                for (int e = firstEdge[node]; ; e++) {
+                    int target = edges[e] >>> LETTER_BITS;
+                    if (index < wordCounts[target]) {
+                        word.append((char) ('A' + (edges[e] & LETTER_MASK)));
+                        node = target;
+                        break;
+                    }
+                    index -= wordCounts[target];
+                }
+            }
+        }
+
+/** Returns the index of the word in the list (rank), or -1 if it isn't there. */
+        public int indexOf(CharSequence word) {
+            if (root < 0) return -1;
+
+            int index = 0;
+            int node = root;
+            for (int pos = 0; pos < word.length(); pos++) {
+                int letter = letterOf(word.charAt(pos));
+                if (letter < 0) return -1;
+
+                if (isFinal(node)) index++;
+                int next = -1;
+                for (int e = firstEdge[node], end = firstEdge[node + 1]; e < end; e++) {
+                    int target = edges[e] >>> LETTER_BITS;
+                    int label = edges[e] & LETTER_MASK;
+                    if (label == letter) {
+                        next = target;
+                        break;
+                    }
+                    if (label > letter) break;
+                    index += wordCounts[target];
+                }
+                if (next < 0) return -1;
+                node = next;
+            }
+
+            return isFinal(node) ? index : -1;
+        }
+
+/** Returns true if the list contains the word. */
+        public boolean contains(CharSequence word) {
+            return indexOf(word) >= 0;
+        }
+
+/** Returns how many words of the list start with the prefix. */
+        public int countWithPrefix(CharSequence prefix) {
+            int node = walk(prefix);
+            return node < 0 ? 0 : wordCounts[node];
+        }
+
+/**
+ * Passes every word starting with the prefix to the action, in
+ * alphabetical order.  They are the words from indexOf of the first of
+ * them on, countWithPrefix of them in a row.
+ */
+        public void forEachWithPrefix(CharSequence prefix, Consumer<String> action) {
+            int node = walk(prefix);
+            if (node < 0) return;
+
+            char[] word = Arrays.copyOf(prefix.toString().toUpperCase().toCharArray(), HangmanRound.MAX_WORD_LENGTH);
+            collect(node, word, prefix.length(), action);
+        }
+
+/**
+ * Returns how many words match a pattern as the game shows it: the
+ * pattern's length, its letters in place, and at each '-' any letter
+ * that is not in excludedLetters (a HangmanWordIndex letter mask).
+ * Passing the wrong and revealed letters as excludedLetters gives the
+ * words still consistent with a round.
+ */
+        public int countMatches(CharSequence pattern, int excludedLetters) {
+            return root < 0 ? 0 : match(root, pattern, 0, excludedLetters, null, null);
+        }
+
+/** Passes every word matching the pattern (see countMatches) to the action, in alphabetical order. */
+        public void forEachMatch(CharSequence pattern, int excludedLetters, Consumer<String> action) {
+            if (root < 0) return;
+            match(root, pattern, 0, excludedLetters, new char[pattern.length()], action);
+        }
+
+        // the node after the letters of the prefix, or -1
+        private int walk(CharSequence prefix) {
+            int node = root;
+            for (int pos = 0; pos < prefix.length() && node >= 0; pos++) {
+                int letter = letterOf(prefix.charAt(pos));
+                node = letter < 0 ? -1 : child(node, letter);
+            }
+
+            return node;
+        }
+
+        private void collect(int node, char[] word, int length, Consumer<String> action) {
+            if (isFinal(node)) action.accept(new String(word, 0, length));
+
+            for (int e = firstEdge[node], end = firstEdge[node + 1]; e < end; e++) {
+                word[length] = (char) ('A' + (edges[e] & LETTER_MASK));
+                collect(edges[e] >>> LETTER_BITS, word, length + 1, action);
+            }
+        }
+
+        // counts (and passes on, when word is set) the matches below node from position pos
+        private int match(int node, CharSequence pattern, int pos, int excluded, char[] word, Consumer<String> action) {
+            if (pos == pattern.length()) {
+                if (!isFinal(node)) return 0;
+                if (action != null) action.accept(new String(word));
+                return 1;
+            }
+
+            char ch = pattern.charAt(pos);
+            if (ch != ANY_LETTER) {
+                int letter = letterOf(ch);
+                int next = letter < 0 ? -1 : child(node, letter);
+                if (next < 0) return 0;
+                if (word != null) word[pos] = (char) ('A' + letter);
+                return match(next, pattern, pos + 1, excluded, word, action);
+            }
+
+            int count = 0;
+            for (int e = firstEdge[node], end = firstEdge[node + 1]; e < end; e++) {
+                int letter = edges[e] & LETTER_MASK;
+                if ((excluded & (1 << letter)) != 0) continue;
+
+                if (word != null) word[pos] = (char) ('A' + letter);
+                count += match(edges[e] >>> LETTER_BITS, pattern, pos + 1, excluded, word, action);
+            }
+
+            return count;
+        }
+    }
+
+/**
+ * Collects word lists into one automaton.  Each list is built from its
+ * sorted words bottom up, and every finished node is looked up among
+ * the nodes built so far (of any list) before a new one is added.
+ */
+    public static class Builder {
+        private final Map<String, Integer> roots = new LinkedHashMap<>();
+        private final HashMap<NodeKey, Integer> registry = new HashMap<>();
+
+        private int[] firstEdge = new int[1024];
+        private int[] edges = new int[1024];
+        private int[] wordCounts = new int[1024];
+        private long[] finals = new long[16];
+        private int nodeCount;
+        private int edgeCount;
+
+        // scratch edges per depth while a list is being built
+        private final int[][] pending = new int[HangmanRound.MAX_WORD_LENGTH + 1][HangmanWordIndex.ALPHABET_SIZE];
+
+/** Adds the words of a store as a list with the given name, replacing a list of that name. */
+        public Builder add(String name, HangmanWordStore store) {
+            String[] words = new String[store.getWordCount()];
+            int count = 0;
+            for (int i = 0; i < words.length; i++) {
+                if (store.getWordLength(i) <= HangmanRound.MAX_WORD_LENGTH) words[count++] = store.getWord(i);
+            }
+
+            return add(name, Arrays.copyOf(words, count));
+        }
+
+/** Adds uppercase words as a list with the given name; duplicates are kept once. */
+        public Builder add(String name, String... words) {
+            String[] sorted = words.clone();
+            Arrays.sort(sorted);
+            roots.put(name, sorted.length == 0 ? -1 : build(sorted, 0, sorted.length, 0));
+            return this;
+        }
+
+        public HangmanTrie build() {
+            return new HangmanTrie(this);
+        }
+
+        // the node accepting the endings from depth on of the sorted words from..to, which share a prefix
+        private int build(String[] words, int from, int to, int depth) {
+            boolean isFinal = false;
+            while (from < to && words[from].length() == depth) {
+                isFinal = true;  // the prefix itself, maybe listed more than once
+                from++;
+            }
+
+            int[] out = pending[depth];
+            int outCount = 0;
+            int childWords = 0;
+            while (from < to) {
+                char ch = words[from].charAt(depth);
+                int end = from + 1;
+                while (end < to && words[end].charAt(depth) == ch) end++;
+
+                int letter = letterOf(ch);
+                if (letter >= 0) {
+                    int child = build(words, from, end, depth + 1);
+                    out[outCount++] = (child << LETTER_BITS) | letter;
+                    childWords += wordCounts[child];
+                }
+                from = end;
+            }
+
+            return intern(isFinal, out, outCount, childWords + (isFinal ? 1 : 0));
+        }
+
+        private int intern(boolean isFinal, int[] out, int outCount, int wordCount) {
+            NodeKey key = new NodeKey(isFinal, Arrays.copyOf(out, outCount));
+            Integer existing = registry.get(key);
+            if (existing != null) return existing;
+
+            int node = nodeCount++;
+            if (node + 1 >= firstEdge.length) {
+                firstEdge = Arrays.copyOf(firstEdge, firstEdge.length * 2);
+                wordCounts = Arrays.copyOf(wordCounts, wordCounts.length * 2);
+                finals = Arrays.copyOf(finals, finals.length * 2);
+            }
+            if (edgeCount + outCount > edges.length) {
+                edges = Arrays.copyOf(edges, Math.max(edges.length * 2, edgeCount + outCount));
+            }
+
+            firstEdge[node] = edgeCount;
+            System.arraycopy(out, 0, edges, edgeCount, outCount);
+            edgeCount += outCount;
+            firstEdge[node + 1] = edgeCount;
+            wordCounts[node] = wordCount;
+            if (isFinal) finals[node >>> 6] |= 1L << node;
+
+            registry.put(key, node);
+            return node;
+        }
+    }
+
+    // a node as the registry compares it: final or not, and its edges
+    private static final class NodeKey {
+        private final boolean isFinal;
+        private final int[] edges;
+        private final int hash;
+
+        NodeKey(boolean isFinal, int[] edges) {
+            this.isFinal = isFinal;
+            this.edges = edges;
+            this.hash = Arrays.hashCode(edges) * 2 + (isFinal ? 1 : 0);
+        }
+
+        public int hashCode() {
+            return hash;
+        }
+
+        public boolean equals(Object other) {
+            if (!(other instanceof NodeKey)) return false;
+
+            NodeKey key = (NodeKey) other;
+            return isFinal == key.isFinal && Arrays.equals(edges, key.edges);
+        }
+    }
+}
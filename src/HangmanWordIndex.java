@@ -0,0 +1,326 @@
+/*
+ * File: HangmanWordIndex.java
+ * ---------------------------
+ * This file builds a one-off index over the lexicon so a round can ask
+ * for a word by length, by letters it must or must not contain, or by
+ * difficulty without scanning the whole word list.
+ *
+ * Words are kept in two orders: by (length, difficulty score), so every
+ * length range is one contiguous run, and by difficulty score alone, so
+ * a score range is found with a binary search.  Each word also has a
+ * 26-bit mask of the letters it contains (bit 0 is 'A').
+ */
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class HangmanWordIndex {
+    public static final int ALPHABET_SIZE = 26;
+
+    // how many random probes a letter-constrained pick tries before scanning
+    private static final int MAX_PROBES = 64;
+
+    // words shorter than this get a difficulty bonus per missing letter
+    private static final int SHORT_WORD_LENGTH = 10;
+    private static final int SHORT_WORD_BONUS = 5;
+
+    private final HangmanWordStore store;
+    private final int[] letterMasks;
+    private final int[] scores;
+
+    private final int[] wordsByLength;  // sorted by length, then score
+    private final int[] lengthStart;    // words of length n start at lengthStart[n]
+    private final int[] wordsByScore;   // sorted by score
+    private final int[] sortedScores;   // scores in the order of wordsByScore
+
+/** Builds the index with the quick built-in difficulty scores. */
+    public HangmanWordIndex(HangmanWordStore store) {
+        this(store, null);
+    }
+
+/**
+ * Builds the index with the given difficulty scores (0..2^24-1, one per
+ * word of the store, such as HangmanDifficulty's), or the built-in ones
+ * if scores is null.
+ */
+    public HangmanWordIndex(HangmanWordStore store, int[] scores) {
+        this.store = store;
+        int count = store.getWordCount();
+
+        letterMasks = new int[count];
+        for (int i = 0; i < count; i++) {
+            letterMasks[i] = letterMask(store, i);
+        }
+
+        this.scores = scores != null ? scores : scoreWords(letterMasks, store);
+        wordsByLength = sortByLengthAndScore();
+        lengthStart = buildLengthStarts();
+        wordsByScore = sortByScore();
+
+        sortedScores = new int[count];
+        for (int i = 0; i < count; i++) {
+            sortedScores[i] = this.scores[wordsByScore[i]];
+        }
+    }
+
+/** Returns the mask of letters contained in the word at the specified index. */
+    public int getLetterMask(int index) {
+        return letterMasks[index];
+    }
+
+/** Returns the difficulty score of the word at the specified index (higher is harder). */
+    public int getScore(int index) {
+        return scores[index];
+    }
+
+/** Returns the mask bit for a letter, 0 if it isn't between A and Z. */
+    public static int letterBit(char letter) {
+        int pos = Character.toUpperCase(letter) - 'A';
+        return (pos >= 0 && pos < ALPHABET_SIZE) ? 1 << pos : 0;
+    }
+
+/** Builds a letter mask from the letters of a string, e.g. "QZX". */
+    public static int letterMask(String letters) {
+        int mask = 0;
+        for (int i = 0; i < letters.length(); i++) {
+            mask |= letterBit(letters.charAt(i));
+        }
+
+        return mask;
+    }
+
+/** Returns how many words have a length between minLength and maxLength. */
+    public int countByLength(int minLength, int maxLength) {
+        return lengthRangeEnd(maxLength) - lengthRangeStart(minLength);
+    }
+
+/**
+ * Copies the indices of all words of the given length into dest,
+ * which must hold at least countByLength(length, length) entries,
+ * and returns how many were copied.
+ */
+    public int copyWordsOfLength(int length, int[] dest) {
+        int from = lengthRangeStart(length);
+        int count = lengthRangeEnd(length) - from;
+        if (count <= 0) return 0;
+
+        System.arraycopy(wordsByLength, from, dest, 0, count);
+        return count;
+    }
+
+/**
+ * Picks a random word index with a length between minLength and
+ * maxLength (inclusive), or -1 if there is none.  Runs in O(1).
+ */
+    public int pickByLength(Random rgen, int minLength, int maxLength) {
+        int from = lengthRangeStart(minLength);
+        int to = lengthRangeEnd(maxLength);
+        if (from >= to) return -1;
+
+        return wordsByLength[from + rgen.nextInt(to - from)];
+    }
+
+/**
+ * Picks a random word index with a length in the given range that
+ * contains every letter of required and none of forbidden (letter
+ * masks), or -1 if there is none.  A few random probes are tried
+ * first; only when the constraints are very selective does it fall
+ * back to scanning that length range.
+ */
+    public int pickByLetters(Random rgen, int minLength, int maxLength, int required, int forbidden) {
+        int from = lengthRangeStart(minLength);
+        int to = lengthRangeEnd(maxLength);
+        if (from >= to) return -1;
+
+        for (int i = 0; i < MAX_PROBES; i++) {
+            int word = wordsByLength[from + rgen.nextInt(to - from)];
+            if (matches(word, required, forbidden)) return word;
+        }
+
+        int matchCount = 0;
+        for (int i = from; i < to; i++) {
+            if (matches(wordsByLength[i], required, forbidden)) matchCount++;
+        }
+        if (matchCount == 0) return -1;
+
+        int target = rgen.nextInt(matchCount);
+        for (int i = from; i < to; i++) {
+            if (matches(wordsByLength[i], required, forbidden) && target-- == 0) {
+                return wordsByLength[i];
+            }
+        }
+
+        return -1;
+    }
+
+/**
+ * Picks a random word index whose score is between minScore and
+ * maxScore (inclusive), or -1 if there is none.  Runs in O(log n).
+ */
+    public int pickByScore(Random rgen, int minScore, int maxScore) {
+        int from = firstScoreAtLeast(minScore);
+        int to = firstScoreAtLeast(maxScore + 1);
+        if (from >= to) return -1;
+
+        return wordsByScore[from + rgen.nextInt(to - from)];
+    }
+
+/**
+ * Splits the words into bandCount equally sized difficulty bands
+ * and picks a random word index from the given band (0 is the
+ * easiest).  Bands past the last one pick from the hardest band.
+ * Runs in O(1).
+ */
+    public int pickByDifficultyBand(Random rgen, int band, int bandCount) {
+        if (wordsByScore.length == 0) return -1;
+
+        int from = getDifficultyBandStart(band, bandCount);
+        int to = getDifficultyBandEnd(band, bandCount);
+        return wordsByScore[from + rgen.nextInt(to - from)];
+    }
+
+/**
+ * Returns the score rank (see getWordByScoreRank) of the first word
+ * of a difficulty band, clamping the band as pickByDifficultyBand does.
+ */
+    public int getDifficultyBandStart(int band, int bandCount) {
+        band = Math.max(0, Math.min(band, bandCount - 1));
+        return (int) ((long) wordsByScore.length * band / bandCount);
+    }
+
+/** Returns the score rank just past the last word of a difficulty band; bands are never empty. */
+    public int getDifficultyBandEnd(int band, int bandCount) {
+        band = Math.max(0, Math.min(band, bandCount - 1));
+        int end = (int) ((long) wordsByScore.length * (band + 1) / bandCount);
+        return Math.min(wordsByScore.length, Math.max(getDifficultyBandStart(band, bandCount) + 1, end));
+    }
+
+/** Returns the word index at a rank in difficulty order (0 is the easiest word). */
+    public int getWordByScoreRank(int rank) {
+        return wordsByScore[rank];
+    }
+
+    private boolean matches(int word, int required, int forbidden) {
+        int mask = letterMasks[word];
+        return (mask & required) == required && (mask & forbidden) == 0;
+    }
+
+    private int lengthRangeStart(int minLength) {
+        int length = Math.max(0, minLength);
+        return length < lengthStart.length ? lengthStart[length] : wordsByLength.length;
+    }
+
+    private int lengthRangeEnd(int maxLength) {
+        if (maxLength < 0) return 0;
+
+        int length = maxLength + 1;
+        return length < lengthStart.length ? lengthStart[length] : wordsByLength.length;
+    }
+
+    // binary search in sortedScores
+    private int firstScoreAtLeast(int score) {
+        int low = 0;
+        int high = sortedScores.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedScores[mid] < score) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    private int[] sortByLengthAndScore() {
+        // pack (length, score, index) into one long so the sort needs no boxing
+        long[] keys = new long[scores.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = ((long) store.getWordLength(i) << 48) | ((long) scores[i] << 24) | i;
+        }
+
+        return sortedIndices(keys);
+    }
+
+    private int[] sortByScore() {
+        long[] keys = new long[scores.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = ((long) scores[i] << 32) | i;
+        }
+
+        return sortedIndices(keys);
+    }
+
+    // sorts the packed keys and returns the word indices in their low 24 bits
+    private static int[] sortedIndices(long[] keys) {
+        Arrays.sort(keys);
+
+        int[] words = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            words[i] = (int) (keys[i] & 0xFFFFFF);
+        }
+
+        return words;
+    }
+
+    private int[] buildLengthStarts() {
+        int maxLength = store.getMaxWordLength();
+        int[] starts = new int[maxLength + 2];
+
+        int pos = 0;
+        for (int length = 0; length <= maxLength; length++) {
+            starts[length] = pos;
+            pos += store.getLengthCount(length);
+        }
+        starts[maxLength + 1] = pos;
+
+        return starts;
+    }
+
+    private static int letterMask(HangmanWordStore store, int index) {
+        int mask = 0;
+        for (int pos = store.getWordLength(index) - 1; pos >= 0; pos--) {
+            mask |= letterBit(store.getLetter(index, pos));
+        }
+
+        return mask;
+    }
+
+    /*
+     * A word is scored 0..100 by how rare its distinct letters are
+     * across the lexicon, with a bonus for short words, since they
+     * give fewer letters away per correct guess.
+     */
+    private static int[] scoreWords(int[] letterMasks, HangmanWordStore store) {
+        int count = letterMasks.length;
+        int[] presence = new int[ALPHABET_SIZE];
+        for (int mask : letterMasks) {
+            for (int letter = 0; letter < ALPHABET_SIZE; letter++) {
+                if ((mask & (1 << letter)) != 0) presence[letter]++;
+            }
+        }
+
+        int[] rarity = new int[ALPHABET_SIZE];
+        for (int letter = 0; letter < ALPHABET_SIZE; letter++) {
+            rarity[letter] = count == 0 ? 0 : 100 - (int) (100L * presence[letter] / count);
+        }
+
+        int[] scores = new int[count];
+        for (int i = 0; i < count; i++) {
+            int mask = letterMasks[i];
+            int distinct = Integer.bitCount(mask);
+            if (distinct == 0) continue;
+
+            int raritySum = 0;
+            for (int letter = 0; letter < ALPHABET_SIZE; letter++) {
+                if ((mask & (1 << letter)) != 0) raritySum += rarity[letter];
+            }
+
+            int shortBonus = Math.max(0, SHORT_WORD_LENGTH - store.getWordLength(i)) * SHORT_WORD_BONUS;
+            scores[i] = Math.min(100, raritySum / distinct / 2 + shortBonus);
+        }
+
+        return scores;
+    }
+}
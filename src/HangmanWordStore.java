@@ -0,0 +1,204 @@
+/*
+ * File: HangmanWordStore.java
+ * ---------------------------
+ * This file keeps the words of a lexicon in a packed form: all letters
+ * live in one byte array and an offset table marks where each word
+ * starts, so no String is created until a word is actually asked for.
+ *
+ * A store can also be saved as a precompiled binary image (see
+ * HangmanLexiconCompiler) which is loaded back with one bulk read:
+ *
+ *   int    magic ("HLEX"), format version
+ *   int    word count, letter count, max word length
+ *   int[]  length index: number of words of each length 0..max
+ *   int[]  offsets table (word count + 1 entries)
+ *   byte[] packed letters
+ *   long   CRC32 of everything above
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+public class HangmanWordStore {
+    private static final int IMAGE_MAGIC = 0x484C4558;  // "HLEX"
+    private static final int IMAGE_VERSION = 1;
+    private static final int IMAGE_HEADER_INTS = 5;
+    private static final String TEXT_SUFFIX = ".txt";
+    private static final String IMAGE_SUFFIX = ".bin";
+
+    private final byte[] letters;
+    private final int[] offsets;  // word i spans offsets[i] .. offsets[i + 1]
+    private final int wordCount;
+    private final int[] lengthCounts;
+
+    public HangmanWordStore(byte[] letters, int[] offsets, int wordCount) {
+        this.letters = letters;
+        this.offsets = offsets;
+        this.wordCount = wordCount;
+        this.lengthCounts = countLengths();
+    }
+
+/**
+ * Opens a lexicon, preferring its precompiled image (same name ending
+ * in .bin) when one exists and is not older than the text file.  Text
+ * is parsed and normalised by HangmanLexiconLoader.
+ */
+    public static HangmanWordStore open(String path) throws IOException {
+        if (hasCurrentImage(path)) {
+            String imagePath = getImagePath(path);
+            try {
+                return loadImage(imagePath);
+            } catch (IOException e) {
+                System.err.println("Ignoring lexicon image " + imagePath + ": " + e.getMessage());
+            }
+        }
+
+        return HangmanLexiconLoader.load(path);
+    }
+
+/** Returns true if a text lexicon has a precompiled image that is not older than it. */
+    public static boolean hasCurrentImage(String path) {
+        File image = new File(getImagePath(path));
+        File text = new File(path);
+
+        return image.isFile() && (!text.isFile() || image.lastModified() >= text.lastModified());
+    }
+
+/** Returns the path of the binary image that belongs to a text lexicon. */
+    public static String getImagePath(String path) {
+        if (path.endsWith(TEXT_SUFFIX)) {
+            return path.substring(0, path.length() - TEXT_SUFFIX.length()) + IMAGE_SUFFIX;
+        }
+
+        return path + IMAGE_SUFFIX;
+    }
+
+/** Reads a binary image written by writeImage in a single bulk read. */
+    public static HangmanWordStore loadImage(String path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) break;
+            }
+        }
+        buffer.flip();
+
+        int bodySize = buffer.limit() - Long.BYTES;
+        if (bodySize < IMAGE_HEADER_INTS * Integer.BYTES || buffer.getInt() != IMAGE_MAGIC) {
+            throw new IOException("not a lexicon image");
+        }
+
+        int version = buffer.getInt();
+        if (version != IMAGE_VERSION) {
+            throw new IOException("unsupported lexicon image version " + version);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, bodySize);
+        if (crc.getValue() != buffer.getLong(bodySize)) {
+            throw new IOException("lexicon image checksum mismatch");
+        }
+
+        int wordCount = buffer.getInt();
+        int letterCount = buffer.getInt();
+        int maxLength = buffer.getInt();
+
+        int[] lengthCounts = new int[maxLength + 1];
+        int[] offsets = new int[wordCount + 1];
+        byte[] letters = new byte[letterCount];
+        buffer.asIntBuffer().get(lengthCounts);
+        buffer.position(buffer.position() + lengthCounts.length * Integer.BYTES);
+        buffer.asIntBuffer().get(offsets);
+        buffer.position(buffer.position() + offsets.length * Integer.BYTES);
+        buffer.get(letters);
+
+        HangmanWordStore store = new HangmanWordStore(letters, offsets, wordCount);
+        if (!Arrays.equals(store.lengthCounts, lengthCounts)) {
+            throw new IOException("lexicon image length index does not match its words");
+        }
+
+        return store;
+    }
+
+/** Writes the store as a binary image that loadImage can read back. */
+    public void writeImage(String path) throws IOException {
+        int size = (IMAGE_HEADER_INTS + lengthCounts.length + wordCount + 1) * Integer.BYTES
+                + offsets[wordCount] + Long.BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+
+        buffer.putInt(IMAGE_MAGIC);
+        buffer.putInt(IMAGE_VERSION);
+        buffer.putInt(wordCount);
+        buffer.putInt(offsets[wordCount]);
+        buffer.putInt(lengthCounts.length - 1);
+        for (int count : lengthCounts) buffer.putInt(count);
+        for (int i = 0; i <= wordCount; i++) buffer.putInt(offsets[i]);
+        buffer.put(letters, 0, offsets[wordCount]);
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putLong(crc.getValue());
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    // number of words of every length, indexed by length
+    private int[] countLengths() {
+        int maxLength = 0;
+        for (int i = 0; i < wordCount; i++) {
+            maxLength = Math.max(maxLength, getWordLength(i));
+        }
+
+        int[] counts = new int[maxLength + 1];
+        for (int i = 0; i < wordCount; i++) {
+            counts[getWordLength(i)]++;
+        }
+
+        return counts;
+    }
+
+/** Returns the number of words in the store. */
+    public int getWordCount() {
+        return wordCount;
+    }
+
+/** Returns the length of the longest word in the store. */
+    public int getMaxWordLength() {
+        return lengthCounts.length - 1;
+    }
+
+/** Returns how many words in the store have the given length. */
+    public int getLengthCount(int length) {
+        return length < lengthCounts.length ? lengthCounts[length] : 0;
+    }
+
+/** Returns the word at the specified index, decoding it from the packed letters. */
+    public String getWord(int index) {
+        int start = offsets[index];
+        return new String(letters, start, offsets[index + 1] - start, StandardCharsets.US_ASCII);
+    }
+
+/** Returns the length of the word at the specified index. */
+    public int getWordLength(int index) {
+        return offsets[index + 1] - offsets[index];
+    }
+
+/** Returns the letter at position pos of the word at the specified index. */
+    public char getLetter(int index, int pos) {
+        return (char) letters[offsets[index] + pos];
+    }
+}